@@ -0,0 +1,85 @@
+package cat.itacademy.s04.t01.userapi.benchmarks;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.repository.UserJsonCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the payloads returned by the user endpoints, configured like the application's
+ * mapper so the constructor-based deserialization of {@link User} works the same way.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"1", "100"})
+    int listSize;
+
+    private ObjectWriter listWriter;
+    private ObjectWriter userWriter;
+    private ObjectReader userReader;
+    private List<User> users;
+    private User user;
+    private byte[] userJson;
+    private UserJsonCache jsonCache;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new ParameterNamesModule());
+        listWriter = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, User.class));
+        userWriter = mapper.writerFor(User.class);
+        userReader = mapper.readerFor(User.class);
+        users = UserFixtures.users(listSize);
+        user = users.get(0);
+        userJson = userWriter.writeValueAsBytes(user);
+        jsonCache = new UserJsonCache(userWriter);
+        users.forEach(jsonCache::put);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws JsonProcessingException {
+        return userWriter.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return listWriter.writeValueAsBytes(users);
+    }
+
+    /**
+     * The list as {@code userapi.serialization.pre-encoded} writes it: cached encodings joined
+     * inside brackets.
+     */
+    @Benchmark
+    public byte[] serializeListPreEncoded() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('[');
+        for (int i = 0; i < users.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(jsonCache.json(users.get(i)));
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public User deserializeUser() throws IOException {
+        return userReader.readValue(userJson);
+    }
+}
@@ -0,0 +1,147 @@
+package cat.itacademy.s04.t01.userapi.benchmarks;
+
+import cat.itacademy.s04.t01.userapi.dto.UserPage;
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.repository.InMemoryUserRepository;
+import cat.itacademy.s04.t01.userapi.repository.OffHeapUserRepository;
+import cat.itacademy.s04.t01.userapi.repository.ParallelScan;
+import cat.itacademy.s04.t01.userapi.repository.ShardedUserRepository;
+import cat.itacademy.s04.t01.userapi.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of both storage engines at several store sizes. Thread count is chosen on the command line
+ * with {@code -t}, so the same benchmarks measure contention as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+    private static final int LOOKUPS = 1 << 16;
+    private static final int BATCH = 100;
+
+    @Param({"10000", "1000000"})
+    int size;
+
+    @Param({"heap", "off-heap", "sharded"})
+    String engine;
+
+    @Param({"sequential", "parallel"})
+    String scan;
+
+    private UserRepository repository;
+    private ParallelScan parallelScan;
+    private UUID[] ids;
+    private String[] emails;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int advance() {
+            return next++ & (LOOKUPS - 1);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        parallelScan = scan.equals("parallel")
+                ? ParallelScan.withParallelism(Runtime.getRuntime().availableProcessors(), 20_000)
+                : ParallelScan.sequential();
+        repository = switch (engine) {
+            case "off-heap" -> new OffHeapUserRepository(parallelScan);
+            case "sharded" -> new ShardedUserRepository(Runtime.getRuntime().availableProcessors() * 2, parallelScan);
+            default -> new InMemoryUserRepository(parallelScan);
+        };
+        List<User> users = UserFixtures.users(size);
+        repository.saveAll(users);
+
+        int[] indexes = UserFixtures.randomIndexes(size, LOOKUPS);
+        ids = new UUID[LOOKUPS];
+        emails = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            User user = users.get(indexes[i]);
+            ids[i] = user.getId();
+            emails[i] = user.getEmail();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        parallelScan.close();
+    }
+
+    @Benchmark
+    public Optional<User> findById(Cursor cursor) {
+        return repository.findById(ids[cursor.advance()]);
+    }
+
+    @Benchmark
+    public Optional<User> findByIdMissing() {
+        return repository.findById(UUID.randomUUID());
+    }
+
+    /**
+     * One batch of {@value #BATCH} ids, against {@link #findByIdOneByOne(Cursor)} for the same ids.
+     */
+    @Benchmark
+    public List<User> findAllById(Cursor cursor) {
+        int from = cursor.advance() & (LOOKUPS - 128);
+        return repository.findAllById(Arrays.asList(ids).subList(from, from + BATCH));
+    }
+
+    @Benchmark
+    public int findByIdOneByOne(Cursor cursor) {
+        int from = cursor.advance() & (LOOKUPS - 128);
+        int found = 0;
+        for (int i = from; i < from + BATCH; i++) {
+            if (repository.findById(ids[i]).isPresent()) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public boolean existsByEmail(Cursor cursor) {
+        return repository.existsByEmail(emails[cursor.advance()]);
+    }
+
+    @Benchmark
+    public List<User> searchByNameSelective() {
+        return repository.searchByName("hopper 4242");
+    }
+
+    @Benchmark
+    public List<User> searchByNameShortQuery() {
+        return repository.searchByName("z");
+    }
+
+    @Benchmark
+    public List<User> findByNamePrefix() {
+        return repository.findByNamePrefix("grace h", 10);
+    }
+
+    @Benchmark
+    public UserPage findFirstPage() {
+        return repository.findPage(null, null, 100);
+    }
+
+    /**
+     * Overwrites existing users so the store keeps its size across iterations.
+     */
+    @Benchmark
+    public User save(Cursor cursor) {
+        int slot = cursor.advance();
+        return repository.save(new User(ids[slot], "Renamed User", emails[slot]));
+    }
+}
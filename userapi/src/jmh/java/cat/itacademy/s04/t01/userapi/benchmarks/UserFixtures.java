@@ -0,0 +1,46 @@
+package cat.itacademy.s04.t01.userapi.benchmarks;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Deterministic synthetic users shared by the benchmarks.
+ */
+final class UserFixtures {
+    private static final String[] FIRST_NAMES = {
+            "Ada", "Alan", "Grace", "Joan", "María", "Linus", "Barbara", "Edsger", "Margaret", "Dennis"
+    };
+    private static final String[] LAST_NAMES = {
+            "Lovelace", "Turing", "Hopper", "Clarke", "García", "Torvalds", "Liskov", "Dijkstra", "Hamilton", "Ritchie"
+    };
+
+    private UserFixtures() {
+    }
+
+    static User user(int index) {
+        String name = FIRST_NAMES[index % FIRST_NAMES.length] + " "
+                + LAST_NAMES[(index / FIRST_NAMES.length) % LAST_NAMES.length] + " " + index;
+        return new User(new UUID(0x5EEDL, index), name, "user" + index + "@example.com");
+    }
+
+    static List<User> users(int size) {
+        List<User> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            users.add(user(i));
+        }
+        return users;
+    }
+
+    static int[] randomIndexes(int size, int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        int[] indexes = new int[count];
+        for (int i = 0; i < count; i++) {
+            indexes[i] = random.nextInt(size);
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,122 @@
+package cat.itacademy.s04.t01.userapi.benchmarks;
+
+import cat.itacademy.s04.t01.userapi.dto.CreateUserResult;
+import cat.itacademy.s04.t01.userapi.dto.UserPage;
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.exceptions.UserNotFoundException;
+import cat.itacademy.s04.t01.userapi.repository.InMemoryUserRepository;
+import cat.itacademy.s04.t01.userapi.service.UserService;
+import cat.itacademy.s04.t01.userapi.service.UserServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service calls behind the controller endpoints, without the HTTP layer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+    private static final int LOOKUPS = 1 << 16;
+
+    @Param({"10000", "1000000"})
+    int size;
+
+    private UserService service;
+    private UUID[] ids;
+    private UUID[] missingIds;
+    private User duplicate;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+        int created;
+
+        int advance() {
+            return next++ & (LOOKUPS - 1);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryUserRepository repository = new InMemoryUserRepository();
+        List<User> users = UserFixtures.users(size);
+        repository.saveAll(users);
+        service = new UserServiceImpl(repository);
+
+        int[] indexes = UserFixtures.randomIndexes(size, LOOKUPS);
+        ids = new UUID[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            ids[i] = users.get(indexes[i]).getId();
+        }
+        missingIds = new UUID[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            missingIds[i] = new UUID(0xBADL, i);
+        }
+        duplicate = new User(null, "Duplicate User", users.get(0).getEmail());
+    }
+
+    @Benchmark
+    public User getUserById(Cursor cursor) {
+        return service.getUserById(ids[cursor.advance()]);
+    }
+
+    /**
+     * The 404 path through {@link UserNotFoundException}. Run with {@code -prof gc} to compare
+     * allocation with {@link #findUserByIdMissing(Cursor)}.
+     */
+    @Benchmark
+    public User getUserByIdMissingThrowing(Cursor cursor) {
+        try {
+            return service.getUserById(missingIds[cursor.advance()]);
+        } catch (UserNotFoundException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public Optional<User> findUserByIdMissing(Cursor cursor) {
+        return service.findUserById(missingIds[cursor.advance()]);
+    }
+
+    /**
+     * The 409 path as an {@link IllegalArgumentException} with a full stack trace, against
+     * {@link #registerUserDuplicate()}.
+     */
+    @Benchmark
+    public User createUserDuplicateThrowing() {
+        try {
+            return service.createUser(duplicate);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public CreateUserResult registerUserDuplicate() {
+        return service.registerUser(duplicate);
+    }
+
+    @Benchmark
+    public UserPage listFirstPage() {
+        return service.getUsersPage(null, null, 100);
+    }
+
+    @Benchmark
+    public List<User> searchByName() {
+        return service.searchUsersByName("lovelace");
+    }
+
+    @Benchmark
+    public User createUser(Cursor cursor) {
+        String email = Thread.currentThread().threadId() + "-" + cursor.created++ + "@bench.example.com";
+        return service.createUser(new User(null, "Bench User", email));
+    }
+}
@@ -0,0 +1,84 @@
+package cat.itacademy.s04.t01.userapi.benchmarks;
+
+import cat.itacademy.s04.t01.userapi.dto.UserRequest;
+import cat.itacademy.s04.t01.userapi.entities.User;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding cost of the list and bulk payloads in each negotiable wire format. The
+ * encoded size of the list is printed at setup, since JMH only reports time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    @Param({"100", "1000"})
+    int listSize;
+
+    private ObjectWriter listWriter;
+    private ObjectReader listReader;
+    private ObjectReader requestReader;
+    private List<User> users;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "json" -> new JsonFactory();
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+        ObjectMapper mapper = new ObjectMapper(factory).registerModule(new ParameterNamesModule());
+        listWriter = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, User.class));
+        listReader = mapper.readerFor(mapper.getTypeFactory().constructCollectionType(List.class, User.class));
+        requestReader = mapper.readerFor(UserRequest.class);
+        users = UserFixtures.users(listSize);
+        payload = listWriter.writeValueAsBytes(users);
+        System.out.printf("%n%s payload for %d users: %d bytes%n", format, listSize, payload.length);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws IOException {
+        return listWriter.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public List<User> deserializeList() throws IOException {
+        return listReader.readValue(payload);
+    }
+
+    /**
+     * The bulk import path: the same array read one element at a time.
+     */
+    @Benchmark
+    public int readBulk() throws IOException {
+        int count = 0;
+        try (MappingIterator<UserRequest> requests = requestReader.readValues(payload)) {
+            while (requests.hasNextValue()) {
+                requests.nextValue();
+                count++;
+            }
+        }
+        return count;
+    }
+}
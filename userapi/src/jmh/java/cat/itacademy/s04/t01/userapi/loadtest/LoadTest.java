@@ -0,0 +1,201 @@
+package cat.itacademy.s04.t01.userapi.loadtest;
+
+import cat.itacademy.s04.t01.userapi.UserApiApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Starts the application on an ephemeral port once with platform request threads and once with
+ * virtual threads, drives the same mix of requests against each and prints throughput and
+ * latency percentiles per endpoint.
+ *
+ * <p>Options: {@code --concurrency=N} client workers (default 256), {@code --duration=S} seconds
+ * per scenario (default 10), {@code --users=N} seeded users (default 10000) and
+ * {@code --persistence} to run with the write-ahead log, whose fsyncs are the blocking I/O that
+ * virtual threads are meant to absorb.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        // DevTools would otherwise restart this main method with the application's arguments.
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Map<String, String> options = parse(args);
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "256"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "10")));
+        int users = Integer.parseInt(options.getOrDefault("users", "10000"));
+        boolean persistence = options.containsKey("persistence");
+
+        List<String> report = new ArrayList<>();
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            String mode = virtualThreads ? "virtual" : "platform";
+            Path dataDirectory = Files.createTempDirectory("userapi-loadtest");
+            try (ConfigurableApplicationContext context = SpringApplication.run(UserApiApplication.class,
+                    "--server.port=0",
+                    "--spring.threads.virtual.enabled=" + virtualThreads,
+                    "--userapi.persistence.enabled=" + persistence,
+                    "--userapi.persistence.directory=" + dataDirectory,
+                    "--logging.level.root=WARN")) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                Driver driver = new Driver("http://localhost:" + port, concurrency, duration);
+                List<String> ids = driver.seed(users);
+
+                report.add(driver.run(mode, "GET /health", i -> get("/health")));
+                report.add(driver.run(mode, "GET /users", i -> get("/users?limit=100")));
+                report.add(driver.run(mode, "GET /users/{id}",
+                        i -> get("/users/" + ids.get(ThreadLocalRandom.current().nextInt(ids.size())))));
+                AtomicLong created = new AtomicLong();
+                report.add(driver.run(mode, "POST /users", i -> post("/users",
+                        "{\"name\":\"Load User\",\"email\":\"load" + created.incrementAndGet() + "@" + mode + ".example.com\"}")));
+            }
+        }
+
+        System.out.printf("%nconcurrency=%d duration=%ss users=%d persistence=%s%n",
+                concurrency, duration.toSeconds(), users, persistence);
+        System.out.printf("%-9s %-16s %12s %10s %10s %10s %8s%n", "mode", "endpoint", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        report.forEach(System.out::println);
+    }
+
+    private static Request get(String path) {
+        return new Request("GET", path, null);
+    }
+
+    private static Request post(String path, String body) {
+        return new Request("POST", path, body);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int equals = option.indexOf('=');
+            if (equals < 0) {
+                options.put(option, "true");
+            } else {
+                options.put(option.substring(0, equals), option.substring(equals + 1));
+            }
+        }
+        return options;
+    }
+
+    record Request(String method, String path, String body) {
+    }
+
+    private static final class Driver {
+        private final String baseUrl;
+        private final int concurrency;
+        private final Duration duration;
+        private final HttpClient client;
+
+        Driver(String baseUrl, int concurrency, Duration duration) {
+            this.baseUrl = baseUrl;
+            this.concurrency = concurrency;
+            this.duration = duration;
+            this.client = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+        }
+
+        List<String> seed(int users) throws IOException, InterruptedException {
+            StringBuilder payload = new StringBuilder();
+            for (int i = 0; i < users; i++) {
+                payload.append("{\"name\":\"Seed User ").append(i)
+                        .append("\",\"email\":\"seed").append(i).append("@example.com\"}\n");
+            }
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/users/bulk"))
+                            .header("Content-Type", "application/x-ndjson")
+                            .POST(HttpRequest.BodyPublishers.ofString(payload.toString()))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            List<String> ids = new ArrayList<>(users);
+            int from = 0;
+            while ((from = response.body().indexOf("\"id\":\"", from)) >= 0) {
+                from += 6;
+                ids.add(response.body().substring(from, response.body().indexOf('"', from)));
+            }
+            return ids;
+        }
+
+        String run(String mode, String name, Function<Integer, Request> requests) throws Exception {
+            long deadline = System.nanoTime() + duration.toNanos();
+            List<Future<long[]>> workers = new ArrayList<>(concurrency);
+            AtomicLong errors = new AtomicLong();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int w = 0; w < concurrency; w++) {
+                    workers.add(executor.submit(() -> {
+                        long[] latencies = new long[1024];
+                        int count = 0;
+                        int sequence = 0;
+                        while (System.nanoTime() < deadline) {
+                            Request request = requests.apply(sequence++);
+                            long started = System.nanoTime();
+                            try {
+                                HttpResponse<Void> response = client.send(toHttp(request), HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() >= 400) {
+                                    errors.incrementAndGet();
+                                }
+                            } catch (IOException e) {
+                                errors.incrementAndGet();
+                            }
+                            if (count == latencies.length) {
+                                latencies = Arrays.copyOf(latencies, count * 2);
+                            }
+                            latencies[count++] = System.nanoTime() - started;
+                        }
+                        return Arrays.copyOf(latencies, count);
+                    }));
+                }
+            }
+
+            long[] all = new long[0];
+            for (Future<long[]> worker : workers) {
+                long[] latencies = worker.get();
+                int offset = all.length;
+                all = Arrays.copyOf(all, offset + latencies.length);
+                System.arraycopy(latencies, 0, all, offset, latencies.length);
+            }
+            Arrays.sort(all);
+            double throughput = all.length / (double) duration.toSeconds();
+            return String.format("%-9s %-16s %12.0f %10.2f %10.2f %10.2f %8d",
+                    mode, name, throughput, millis(percentile(all, 0.50)), millis(percentile(all, 0.99)),
+                    millis(all.length == 0 ? 0 : all[all.length - 1]), errors.get());
+        }
+
+        private HttpRequest toHttp(Request request) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + request.path()));
+            if (request.body() == null) {
+                return builder.GET().build();
+            }
+            return builder.header("Content-Type", "application/json")
+                    .method(request.method(), HttpRequest.BodyPublishers.ofString(request.body()))
+                    .build();
+        }
+
+        private static long percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)];
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package cat.itacademy.s04.t01.userapi.startup;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Launches the packaged application in a fresh JVM per run and measures the time from process
+ * start to the first successful {@code GET /health}, which is when a new instance can join the
+ * pool. Built by the {@code startup} profile, which also extracts the jar and records the
+ * class-data-sharing archive the {@code aot-cds} mode runs with.
+ *
+ * <p>Modes: {@code jar} runs the executable jar as is, {@code lazy} adds the {@code lazy} Spring
+ * profile, {@code extracted} runs the extracted jar, {@code aot} adds the AOT-generated bean
+ * definitions and {@code aot-cds} also maps the archive.
+ *
+ * <p>Options: {@code --runs=N} measured launches per mode (default 5), {@code --warmup=N} launches
+ * discarded first so the page cache is warm (default 1) and {@code --modes=a,b} to run a subset.
+ * {@code --jar} and {@code --extracted} are set by the Maven execution.
+ */
+public class StartupBenchmark {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(5);
+    private static final Duration START_TIMEOUT = Duration.ofSeconds(60);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "1"));
+        Path jar = Path.of(options.getOrDefault("jar", "target/userapi-0.0.1-SNAPSHOT.jar"));
+        Path extracted = Path.of(options.getOrDefault("extracted", "target/startup"));
+        Path extractedJar = extracted.resolve(jar.getFileName());
+        Path archive = extracted.resolve("application.jsa");
+        List<String> modes = List.of(options.getOrDefault("modes", "jar,lazy,extracted,aot,aot-cds").split(","));
+
+        if (modes.contains("jar") || modes.contains("lazy")) {
+            requireFile(jar);
+        }
+        if (modes.stream().anyMatch(mode -> mode.equals("extracted") || mode.startsWith("aot"))) {
+            requireFile(extractedJar);
+        }
+        if (modes.contains("aot-cds")) {
+            requireFile(archive);
+        }
+
+        String java = ProcessHandle.current().info().command().orElse("java");
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(100)).build();
+        List<String> report = new ArrayList<>();
+        for (String mode : modes) {
+            List<String> command = new ArrayList<>(List.of(java));
+            switch (mode) {
+                case "jar" -> command.addAll(List.of("-jar", jar.toString()));
+                case "lazy" -> command.addAll(List.of("-jar", jar.toString(), "--spring.profiles.active=lazy"));
+                case "extracted" -> command.addAll(List.of("-jar", extractedJar.toString()));
+                case "aot" -> command.addAll(List.of("-Dspring.aot.enabled=true", "-jar", extractedJar.toString()));
+                case "aot-cds" -> command.addAll(List.of("-XX:SharedArchiveFile=" + archive, "-Xlog:cds=off",
+                        "-Dspring.aot.enabled=true", "-jar", extractedJar.toString()));
+                default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+            }
+            command.add("--logging.level.root=WARN");
+
+            long[] millis = new long[runs];
+            for (int run = -warmup; run < runs; run++) {
+                long elapsed = timeToHealthy(client, command);
+                if (run >= 0) {
+                    millis[run] = elapsed;
+                }
+            }
+            Arrays.sort(millis);
+            report.add(String.format("%-10s %10d %10d %10d", mode, millis[0], millis[runs / 2], millis[runs - 1]));
+        }
+
+        System.out.printf("%nruns=%d warmup=%d%n", runs, warmup);
+        System.out.printf("%-10s %10s %10s %10s%n", "mode", "min ms", "median ms", "max ms");
+        report.forEach(System.out::println);
+    }
+
+    /**
+     * Starts the application on a free port, polls {@code /health} until it answers 200 and stops
+     * the process again.
+     */
+    private static long timeToHealthy(HttpClient client, List<String> command) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> withPort = new ArrayList<>(command);
+        withPort.add("--server.port=" + port);
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/health"))
+                .timeout(Duration.ofSeconds(1))
+                .GET()
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(withPort)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        try {
+            long deadline = start + START_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("The application exited with " + process.exitValue() + ": " + withPort);
+                }
+                try {
+                    if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+                    }
+                } catch (IOException notListeningYet) {
+                    // Connection refused until Tomcat has bound the port.
+                }
+                Thread.sleep(POLL_INTERVAL);
+            }
+            throw new IllegalStateException("No healthy response within " + START_TIMEOUT + ": " + withPort);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void requireFile(Path path) {
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalStateException(path + " is missing; build it with mvn -Pstartup package");
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int equals = option.indexOf('=');
+            if (equals < 0) {
+                options.put(option, "true");
+            } else {
+                options.put(option.substring(0, equals), option.substring(equals + 1));
+            }
+        }
+        return options;
+    }
+}
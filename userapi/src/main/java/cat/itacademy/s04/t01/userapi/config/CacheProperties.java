@@ -0,0 +1,17 @@
+package cat.itacademy.s04.t01.userapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the optional id lookup cache, bound from {@code userapi.cache.*}.
+ */
+@ConfigurationProperties("userapi.cache")
+public record CacheProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("100000") long maximumSize,
+        @DefaultValue("10m") Duration ttl,
+        @DefaultValue("30s") Duration negativeTtl) {
+}
@@ -0,0 +1,17 @@
+package cat.itacademy.s04.t01.userapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Change feed settings, bound from {@code userapi.changes.*}. {@code capacity} is how many of the
+ * newest changes a consumer can resume from; streams send a keep-alive comment after
+ * {@code heartbeatInterval} without changes.
+ */
+@ConfigurationProperties("userapi.changes")
+public record ChangeFeedProperties(
+        @DefaultValue("100000") int capacity,
+        @DefaultValue("15s") Duration heartbeatInterval) {
+}
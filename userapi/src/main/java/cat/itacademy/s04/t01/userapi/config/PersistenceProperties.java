@@ -0,0 +1,17 @@
+package cat.itacademy.s04.t01.userapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings of the optional durable mode, bound from {@code userapi.persistence.*}.
+ */
+@ConfigurationProperties("userapi.persistence")
+public record PersistenceProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("data") Path directory,
+        @DefaultValue("10m") Duration snapshotInterval) {
+}
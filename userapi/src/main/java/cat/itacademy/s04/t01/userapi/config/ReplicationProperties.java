@@ -0,0 +1,27 @@
+package cat.itacademy.s04.t01.userapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Leader/follower replication settings, bound from {@code userapi.replication.*}. A leader listens
+ * on {@code port}; a follower connects to {@code host:port}.
+ */
+@ConfigurationProperties("userapi.replication")
+public record ReplicationProperties(
+        @DefaultValue("none") Role role,
+        @DefaultValue("localhost") String host,
+        @DefaultValue("7070") int port,
+        @DefaultValue("512") int batchSize,
+        @DefaultValue("100ms") Duration heartbeatInterval,
+        @DefaultValue("100000") int logCapacity,
+        @DefaultValue("5s") Duration maxStaleness) {
+
+    public enum Role {
+        NONE,
+        LEADER,
+        FOLLOWER
+    }
+}
@@ -0,0 +1,25 @@
+package cat.itacademy.s04.t01.userapi.config;
+
+import cat.itacademy.s04.t01.userapi.repository.ParallelScan;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Provides the {@link ParallelScan} the stores use for searches no index can answer. It is kept
+ * apart from {@link UserRepositoryConfiguration} because the stores it feeds are dependencies of
+ * that configuration.
+ */
+@Configuration
+@EnableConfigurationProperties(SearchProperties.class)
+public class SearchConfiguration {
+
+    @Bean
+    public ParallelScan parallelScan(SearchProperties search) {
+        if (!search.parallel()) {
+            return ParallelScan.sequential();
+        }
+        int parallelism = search.parallelism() > 0 ? search.parallelism() : Runtime.getRuntime().availableProcessors();
+        return ParallelScan.withParallelism(parallelism, search.parallelThreshold());
+    }
+}
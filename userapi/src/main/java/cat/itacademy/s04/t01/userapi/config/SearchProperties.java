@@ -0,0 +1,15 @@
+package cat.itacademy.s04.t01.userapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the parallel name scans, bound from {@code userapi.search.*}. A parallelism of 0 uses
+ * one thread per available core.
+ */
+@ConfigurationProperties("userapi.search")
+public record SearchProperties(
+        @DefaultValue("true") boolean parallel,
+        @DefaultValue("0") int parallelism,
+        @DefaultValue("20000") long parallelThreshold) {
+}
@@ -0,0 +1,39 @@
+package cat.itacademy.s04.t01.userapi.config;
+
+import cat.itacademy.s04.t01.userapi.controllers.PreEncodedUserMessageConverter;
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.repository.UserJsonCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Enables pre-encoded user responses when {@code userapi.serialization.pre-encoded} is set: the
+ * {@link UserJsonCache} is filled on save by {@link UserRepositoryConfiguration}, and a converter
+ * placed ahead of Jackson writes user bodies from it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "userapi.serialization.pre-encoded", havingValue = "true")
+public class SerializationConfiguration implements WebMvcConfigurer {
+
+    private final UserJsonCache userJsonCache;
+
+    public SerializationConfiguration(ObjectMapper objectMapper) {
+        this.userJsonCache = new UserJsonCache(objectMapper.writerFor(User.class));
+    }
+
+    @Bean
+    public UserJsonCache userJsonCache() {
+        return userJsonCache;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.addFirst(new PreEncodedUserMessageConverter(userJsonCache));
+    }
+}
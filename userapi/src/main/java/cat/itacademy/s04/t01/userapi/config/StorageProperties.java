@@ -0,0 +1,22 @@
+package cat.itacademy.s04.t01.userapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Choice of the engine that holds the users, bound from {@code userapi.storage.*}.
+ */
+@ConfigurationProperties("userapi.storage")
+public record StorageProperties(
+        @DefaultValue("heap") Engine engine,
+        @DefaultValue("16") int shards) {
+
+    public enum Engine {
+        /** One object per user in concurrent maps on the Java heap. */
+        HEAP,
+        /** Columns of raw bytes in direct buffers, for datasets that would strain the collector. */
+        OFF_HEAP,
+        /** Heap storage split into {@code shards} partitions so concurrent writes rarely contend. */
+        SHARDED
+    }
+}
@@ -0,0 +1,205 @@
+package cat.itacademy.s04.t01.userapi.config;
+
+import cat.itacademy.s04.t01.userapi.repository.CachingUserRepository;
+import cat.itacademy.s04.t01.userapi.repository.ChangeFeed;
+import cat.itacademy.s04.t01.userapi.repository.ChangeFeedUserRepository;
+import cat.itacademy.s04.t01.userapi.repository.InMemoryUserRepository;
+import cat.itacademy.s04.t01.userapi.repository.MeteredUserRepository;
+import cat.itacademy.s04.t01.userapi.repository.OffHeapUserRepository;
+import cat.itacademy.s04.t01.userapi.repository.ParallelScan;
+import cat.itacademy.s04.t01.userapi.repository.PreEncodingUserRepository;
+import cat.itacademy.s04.t01.userapi.repository.ReactiveUserRepository;
+import cat.itacademy.s04.t01.userapi.repository.ReactiveUserRepositoryAdapter;
+import cat.itacademy.s04.t01.userapi.repository.ShardedUserRepository;
+import cat.itacademy.s04.t01.userapi.repository.UserJsonCache;
+import cat.itacademy.s04.t01.userapi.repository.UserRepository;
+import cat.itacademy.s04.t01.userapi.repository.WritePipeline;
+import cat.itacademy.s04.t01.userapi.repository.persistence.PersistentUserRepository;
+import cat.itacademy.s04.t01.userapi.repository.replication.ReplicationFollower;
+import cat.itacademy.s04.t01.userapi.repository.replication.ReplicationLeader;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.Gauge;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+
+/**
+ * Assembles the {@link UserRepository} the service talks to: the storage engine chosen in
+ * configuration, wrapped by the optional layers enabled there. Layers that own resources are beans
+ * of their own so the context closes them on shutdown.
+ */
+@Configuration
+@EnableConfigurationProperties({StorageProperties.class, PersistenceProperties.class, CacheProperties.class,
+        ReplicationProperties.class, ChangeFeedProperties.class, WritePipelineProperties.class})
+public class UserRepositoryConfiguration {
+
+    private final StorageProperties storage;
+    private final InMemoryUserRepository inMemory;
+    private final ObjectProvider<OffHeapUserRepository> offHeap;
+    private final ObjectProvider<ShardedUserRepository> sharded;
+    private final ObjectProvider<PersistentUserRepository> persistent;
+
+    public UserRepositoryConfiguration(StorageProperties storage,
+                                       InMemoryUserRepository inMemory,
+                                       ObjectProvider<OffHeapUserRepository> offHeap,
+                                       ObjectProvider<ShardedUserRepository> sharded,
+                                       ObjectProvider<PersistentUserRepository> persistent) {
+        this.storage = storage;
+        this.inMemory = inMemory;
+        this.offHeap = offHeap;
+        this.sharded = sharded;
+        this.persistent = persistent;
+    }
+
+    @Bean
+    @Lazy
+    public OffHeapUserRepository offHeapUserRepository(ParallelScan scan, MeterRegistry meterRegistry) {
+        OffHeapUserRepository offHeap = new OffHeapUserRepository(scan);
+        Gauge.builder("userapi.repository.offheap.bytes", offHeap, OffHeapUserRepository::offHeapBytes)
+                .description("Direct memory reserved by the off-heap user store")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        return offHeap;
+    }
+
+    @Bean
+    @Lazy
+    public ShardedUserRepository shardedUserRepository(ParallelScan scan) {
+        return new ShardedUserRepository(storage.shards(), scan);
+    }
+
+    /**
+     * Eager even under {@code spring.main.lazy-initialization}: the log is replayed before the
+     * instance reports healthy rather than on its first request, and the replication beans below
+     * open their connections at startup for the same reason.
+     */
+    @Bean(destroyMethod = "close")
+    @Lazy(false)
+    @ConditionalOnProperty(name = "userapi.persistence.enabled", havingValue = "true")
+    public PersistentUserRepository persistentUserRepository(PersistenceProperties persistence) throws IOException {
+        return PersistentUserRepository.open(store(), persistence.directory(), persistence.snapshotInterval());
+    }
+
+    @Bean(destroyMethod = "close")
+    @Lazy(false)
+    @ConditionalOnProperty(name = "userapi.replication.role", havingValue = "leader")
+    public ReplicationLeader replicationLeader(ReplicationProperties replication, MeterRegistry meterRegistry) throws IOException {
+        ReplicationLeader leader = ReplicationLeader.start(durableStore(), replication.port(),
+                replication.batchSize(), replication.heartbeatInterval(), replication.logCapacity());
+        Gauge.builder("userapi.replication.followers", leader, ReplicationLeader::followerCount)
+                .description("Followers connected to this leader")
+                .register(meterRegistry);
+        return leader;
+    }
+
+    /**
+     * The follower applies the leader's events through the decorating layers, so they reach the
+     * change feed and evict cached entries like local writes would; its read-only view goes on top.
+     */
+    @Bean(destroyMethod = "close")
+    @Lazy(false)
+    @ConditionalOnProperty(name = "userapi.replication.role", havingValue = "follower")
+    public ReplicationFollower replicationFollower(ReplicationProperties replication,
+                                                   ChangeFeed changeFeed,
+                                                   ObjectProvider<UserJsonCache> userJsonCache,
+                                                   CacheProperties cacheProperties,
+                                                   MeterRegistry meterRegistry) {
+        UserRepository store = decorate(durableStore(), changeFeed, userJsonCache, cacheProperties, meterRegistry);
+        ReplicationFollower follower = ReplicationFollower.start(store, replication.host(), replication.port(),
+                replication.maxStaleness());
+        Gauge.builder("userapi.replication.lag", follower, ReplicationFollower::lag)
+                .description("Events announced by the leader and not applied yet")
+                .register(meterRegistry);
+        return follower;
+    }
+
+    @Bean
+    public ChangeFeed changeFeed(ChangeFeedProperties changes) {
+        return new ChangeFeed(changes.capacity());
+    }
+
+    @Bean
+    @Primary
+    public UserRepository userRepository(ChangeFeed changeFeed,
+                                         ObjectProvider<ReplicationLeader> leader,
+                                         ObjectProvider<ReplicationFollower> follower,
+                                         ObjectProvider<UserJsonCache> userJsonCache,
+                                         CacheProperties cacheProperties,
+                                         MeterRegistry meterRegistry) {
+        ReplicationFollower replicationFollower = follower.getIfAvailable();
+        if (replicationFollower != null) {
+            return new MeteredUserRepository(replicationFollower.repository(), meterRegistry);
+        }
+        UserRepository repository = durableStore();
+        ReplicationLeader replicationLeader = leader.getIfAvailable();
+        if (replicationLeader != null) {
+            repository = replicationLeader.repository();
+        }
+        repository = decorate(repository, changeFeed, userJsonCache, cacheProperties, meterRegistry);
+        return new MeteredUserRepository(repository, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "userapi.write-pipeline.enabled", havingValue = "true")
+    public WritePipeline writePipeline(UserRepository userRepository, WritePipelineProperties pipeline, MeterRegistry meterRegistry) {
+        WritePipeline writePipeline = WritePipeline.start(userRepository, pipeline.queueCapacity(), pipeline.batchSize(),
+                pipeline.offerTimeout());
+        Gauge.builder("userapi.write-pipeline.queued", writePipeline, WritePipeline::queued)
+                .description("User creations waiting for the writer thread")
+                .register(meterRegistry);
+        return writePipeline;
+    }
+
+    @Bean
+    public ReactiveUserRepository reactiveUserRepository(UserRepository userRepository) {
+        return new ReactiveUserRepositoryAdapter(userRepository, Schedulers.boundedElastic());
+    }
+
+    /**
+     * The engine holding the users. The alternative engines are lazy beans, so they are only built,
+     * and the off-heap store only reserves direct memory, when selected.
+     */
+    private UserRepository store() {
+        return switch (storage.engine()) {
+            case HEAP -> inMemory;
+            case OFF_HEAP -> offHeap.getObject();
+            case SHARDED -> sharded.getObject();
+        };
+    }
+
+    private UserRepository durableStore() {
+        PersistentUserRepository durable = persistent.getIfAvailable();
+        return durable != null ? durable : store();
+    }
+
+    /**
+     * The optional layers between the store and the service: the change feed, JSON pre-encoding
+     * and the read-through cache.
+     */
+    private static UserRepository decorate(UserRepository store,
+                                           ChangeFeed changeFeed,
+                                           ObjectProvider<UserJsonCache> userJsonCache,
+                                           CacheProperties cacheProperties,
+                                           MeterRegistry meterRegistry) {
+        UserRepository repository = new ChangeFeedUserRepository(store, changeFeed);
+        UserJsonCache json = userJsonCache.getIfAvailable();
+        if (json != null) {
+            repository = new PreEncodingUserRepository(repository, json);
+        }
+        if (cacheProperties.enabled()) {
+            CachingUserRepository cached = new CachingUserRepository(repository,
+                    cacheProperties.maximumSize(), cacheProperties.ttl(), cacheProperties.negativeTtl());
+            CaffeineCacheMetrics.monitor(meterRegistry, cached.cache(), "users");
+            repository = cached;
+        }
+        return repository;
+    }
+}
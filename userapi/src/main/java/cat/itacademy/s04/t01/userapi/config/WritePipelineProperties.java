@@ -0,0 +1,19 @@
+package cat.itacademy.s04.t01.userapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the optional batched write path for user creation, bound from
+ * {@code userapi.write-pipeline.*}. A creation waits up to {@code offerTimeout} for room in a full
+ * queue before it is rejected.
+ */
+@ConfigurationProperties("userapi.write-pipeline")
+public record WritePipelineProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("10000") int queueCapacity,
+        @DefaultValue("512") int batchSize,
+        @DefaultValue("100ms") Duration offerTimeout) {
+}
@@ -0,0 +1,87 @@
+package cat.itacademy.s04.t01.userapi.controllers;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.repository.UserJsonCache;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Writes {@link User} and {@code List<User>} bodies as JSON by copying the bytes held in the
+ * {@link UserJsonCache}; a list is its users' encodings joined inside brackets. Every other body,
+ * and every request body, is left to Jackson.
+ */
+public class PreEncodedUserMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+    private final UserJsonCache cache;
+
+    public PreEncodedUserMessageConverter(UserJsonCache cache) {
+        super(MediaType.APPLICATION_JSON);
+        this.cache = cache;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return User.class == clazz || List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return (clazz == User.class || isUsers(type)) && canWrite(mediaType);
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream out = outputMessage.getBody();
+        if (body instanceof User user) {
+            out.write(cache.json(user));
+            return;
+        }
+        out.write('[');
+        boolean first = true;
+        for (Object user : (List<?>) body) {
+            if (!first) {
+                out.write(',');
+            }
+            out.write(cache.json((User) user));
+            first = false;
+        }
+        out.write(']');
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Pre-encoded users are write-only", inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Pre-encoded users are write-only", inputMessage);
+    }
+
+    private static boolean isUsers(Type type) {
+        if (type == User.class) {
+            return true;
+        }
+        return type instanceof ParameterizedType list
+                && list.getRawType() instanceof Class<?> raw && List.class.isAssignableFrom(raw)
+                && list.getActualTypeArguments()[0] == User.class;
+    }
+}
@@ -0,0 +1,80 @@
+package cat.itacademy.s04.t01.userapi.controllers;
+
+import cat.itacademy.s04.t01.userapi.dto.CreateUserResult;
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.service.ReactiveUserService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reactive flavour of {@link UserController}. Request threads are released while the store works,
+ * and an NDJSON listing is written as the users are emitted, with the flow of users driven by how
+ * fast the client reads.
+ */
+@RestController
+@RequestMapping("/reactive/users")
+public class ReactiveUserController {
+
+    private final ReactiveUserService userService;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public ReactiveUserController(ReactiveUserService userService,
+                                  @Value("${userapi.pagination.default-limit:100}") int defaultLimit,
+                                  @Value("${userapi.pagination.max-limit:1000}") int maxLimit) {
+        this.userService = userService;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Answers a taken email or id with 409 and a problem detail, as {@link UserController} does.
+     */
+    @PostMapping
+    public Mono<ResponseEntity<?>> createUser(@RequestBody User newUser) {
+        return userService.registerUser(newUser).map(result -> switch (result) {
+            case CreateUserResult.Created(User createdUser) -> ResponseEntity.status(HttpStatus.CREATED).body(createdUser);
+            case CreateUserResult.DuplicateEmail(String email) -> ResponseEntity.of(
+                    ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, "Email already registered: " + email)).build();
+            case CreateUserResult.DuplicateId(UUID id) -> ResponseEntity.of(
+                    ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, "User already exists: " + id)).build();
+        });
+    }
+
+    @GetMapping("/{id}")
+    public Mono<User> getUserById(@PathVariable UUID id) {
+        return userService.getUserById(id);
+    }
+
+    /**
+     * A JSON array is collected in full before it is written, so it is paged like
+     * {@code GET /users}; the NDJSON listing below streams every user instead.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<User>>> getUsers(@RequestParam(required = false) String name,
+                                                     @RequestParam(required = false) Integer limit,
+                                                     @RequestParam(required = false) Long cursor) {
+        int pageSize = Math.max(1, Math.min(limit == null ? defaultLimit : limit, maxLimit));
+        return userService.getUsersPage(name, cursor, pageSize).map(page -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(UserController.NEXT_CURSOR_HEADER, page.nextCursor().toString());
+            }
+            return response.body(page.users());
+        });
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<User> streamUsers(@RequestParam(required = false) String name) {
+        return userService.getUsersByName(name);
+    }
+}
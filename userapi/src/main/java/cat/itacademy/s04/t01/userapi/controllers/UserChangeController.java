@@ -0,0 +1,98 @@
+package cat.itacademy.s04.t01.userapi.controllers;
+
+import cat.itacademy.s04.t01.userapi.config.ChangeFeedProperties;
+import cat.itacademy.s04.t01.userapi.dto.UserChange;
+import cat.itacademy.s04.t01.userapi.repository.ChangeFeed;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams the {@link ChangeFeed} as Server-Sent Events, so consumers follow new and changed users
+ * instead of polling the whole list. Each event carries its sequence as the SSE id, which lets
+ * clients resume after a disconnect. Every stream is served by its own virtual thread, parked on
+ * the feed while nothing changes.
+ */
+@RestController
+@RequestMapping("/users")
+public class UserChangeController {
+
+    static final String RESET_EVENT = "reset";
+    private static final int BATCH = 256;
+
+    private final ChangeFeed feed;
+    private final Duration heartbeatInterval;
+    private final ExecutorService streams = Executors.newVirtualThreadPerTaskExecutor();
+
+    public UserChangeController(ChangeFeed feed, ChangeFeedProperties properties) {
+        this.feed = feed;
+        this.heartbeatInterval = properties.heartbeatInterval();
+    }
+
+    /**
+     * Streams the changes with a sequence of at least {@code from}, or those after the
+     * {@code Last-Event-ID} a reconnecting client sends, which takes precedence. A {@code from} of 1
+     * or less starts at the oldest change still retained. Without either, only changes from now on
+     * are sent. When the requested changes are no longer retained, a
+     * {@value #RESET_EVENT} event carrying the current sequence ends the stream; the consumer
+     * rescans {@code GET /users} and resumes from there.
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long from,
+                                    @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId){
+        long after;
+        if (lastEventId != null) {
+            after = lastEventId;
+        } else if (from == null) {
+            after = feed.head();
+        } else {
+            after = from <= 1 ? feed.tail() : from - 1;
+        }
+        SseEmitter emitter = new SseEmitter(0L);
+        streams.execute(() -> stream(emitter, after));
+        return emitter;
+    }
+
+    @PreDestroy
+    void close() {
+        streams.shutdownNow();
+    }
+
+    private void stream(SseEmitter emitter, long after) {
+        long last = after;
+        try {
+            while (true) {
+                List<UserChange> changes = feed.read(last, BATCH, heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (changes == null) {
+                    emitter.send(SseEmitter.event().name(RESET_EVENT).data(feed.head()));
+                    emitter.complete();
+                    return;
+                }
+                if (changes.isEmpty()) {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                    continue;
+                }
+                for (UserChange change : changes) {
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(change.sequence()))
+                            .name(change.type().name())
+                            .data(change, MediaType.APPLICATION_JSON));
+                }
+                last = changes.getLast().sequence();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the request already completed.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        }
+    }
+}
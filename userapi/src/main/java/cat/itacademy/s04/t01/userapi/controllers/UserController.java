@@ -1,48 +1,266 @@
 package cat.itacademy.s04.t01.userapi.controllers;
 
+import cat.itacademy.s04.t01.userapi.dto.BulkImportResult;
+import cat.itacademy.s04.t01.userapi.dto.CreateUserResult;
+import cat.itacademy.s04.t01.userapi.dto.Revision;
+import cat.itacademy.s04.t01.userapi.dto.UserLookupResult;
+import cat.itacademy.s04.t01.userapi.dto.UserPage;
+import cat.itacademy.s04.t01.userapi.dto.UserRequest;
+import cat.itacademy.s04.t01.userapi.dto.UserSuggestion;
+import cat.itacademy.s04.t01.userapi.dto.VersionedUser;
 import cat.itacademy.s04.t01.userapi.entities.User;
-import cat.itacademy.s04.t01.userapi.exceptions.UserNotFoundException;
+import cat.itacademy.s04.t01.userapi.exceptions.InvalidBulkPayloadException;
+import cat.itacademy.s04.t01.userapi.exceptions.InvalidLookupException;
+import cat.itacademy.s04.t01.userapi.exceptions.LookupTooLargeException;
 import cat.itacademy.s04.t01.userapi.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/users")
 public class UserController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String APPLICATION_SMILE = "application/x-jackson-smile";
+    private static final int FLUSH_EVERY = 256;
+    private static final int DEFAULT_SUGGESTIONS = 10;
+
     private final UserService userService;
+    private final ObjectWriter userWriter;
+    private final ObjectReader userRequestReader;
+    private final ObjectReader cborUserRequestReader;
+    private final ObjectReader smileUserRequestReader;
+    private final int defaultLimit;
+    private final int maxLimit;
 
-    public UserController(UserService userService){
+    public UserController(UserService userService,
+                          ObjectMapper objectMapper,
+                          MappingJackson2CborHttpMessageConverter cborConverter,
+                          MappingJackson2SmileHttpMessageConverter smileConverter,
+                          @Value("${userapi.pagination.default-limit:100}") int defaultLimit,
+                          @Value("${userapi.pagination.max-limit:1000}") int maxLimit){
         this.userService = userService;
+        this.userWriter = objectMapper.writerFor(User.class)
+                .withRootValueSeparator((String) null)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.userRequestReader = objectMapper.readerFor(UserRequest.class);
+        this.cborUserRequestReader = cborConverter.getObjectMapper().readerFor(UserRequest.class);
+        this.smileUserRequestReader = smileConverter.getObjectMapper().readerFor(UserRequest.class);
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
     }
 
     public List<User> getUsers() {
         return userService.getAllUsers();
     }
 
+    /**
+     * Answers a taken email, or a client-supplied id that already exists, with 409 and a problem
+     * detail, built directly rather than through an exception and the error page dispatch.
+     *
+     * <p>The answer is always a {@link CompletableFuture}: already completed when the insert ran on
+     * this thread, and pending while the write pipeline holds it, so the request thread is released
+     * until the writer has applied the batch. A failed write reaches the usual exception handling
+     * through the async dispatch.
+     */
     @PostMapping
-    public ResponseEntity<User> createUser(@RequestBody User newUser){
-        User createdUser = userService.createUser(newUser);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdUser);
+    public CompletableFuture<ResponseEntity<?>> createUser(@RequestBody User newUser){
+        return userService.registerUserAsync(newUser).thenApply(UserController::created);
+    }
+
+    private static ResponseEntity<?> created(CreateUserResult result) {
+        return switch (result) {
+            case CreateUserResult.Created(User createdUser) -> ResponseEntity.status(HttpStatus.CREATED).body(createdUser);
+            case CreateUserResult.DuplicateEmail(String email) -> ResponseEntity.of(
+                    ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, "Email already registered: " + email)).build();
+            case CreateUserResult.DuplicateId(UUID id) -> ResponseEntity.of(
+                    ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, "User already exists: " + id)).build();
+        };
+    }
+
+    /**
+     * Imports a JSON array or an NDJSON stream of users, or the CBOR or Smile equivalent: an array
+     * or a sequence of top-level values. Elements are read one at a time, so the request body is
+     * never held in memory as a whole. Batches are stored as they fill, so a payload that turns
+     * malformed part way through gets a 400 whose body reports the elements already processed and
+     * where reading stopped.
+     */
+    @PostMapping(path = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE})
+    public ResponseEntity<BulkImportResult> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                        InputStream body) throws IOException {
+        try (MappingIterator<UserRequest> requests = bulkReader(MediaType.parseMediaType(contentType)).readValues(body)) {
+            BulkImportResult result = userService.importUsers(new BulkRequestIterator(requests));
+            return result.complete() ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+        } catch (JsonProcessingException e) {
+            throw new InvalidBulkPayloadException(e.getOriginalMessage(), e);
+        }
     }
 
+    /**
+     * Resolves a JSON array of ids in one request, for callers that would otherwise send one
+     * {@code GET /users/{id}} per id. At most {@code userapi.pagination.max-limit} ids, none of
+     * them null.
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<UserLookupResult> lookupUsers(@RequestBody List<UUID> ids){
+        if (ids.size() > maxLimit) {
+            throw new LookupTooLargeException(ids.size(), maxLimit);
+        }
+        int nullId = ids.indexOf(null);
+        if (nullId >= 0) {
+            throw new InvalidLookupException(nullId);
+        }
+        return ResponseEntity.ok(userService.lookupUsers(ids));
+    }
+
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<UserSuggestion>> autocomplete(@RequestParam String prefix,
+                                                             @RequestParam(required = false) Integer limit){
+        int size = Math.max(1, Math.min(limit == null ? DEFAULT_SUGGESTIONS : limit, maxLimit));
+        return ResponseEntity.ok(userService.suggestUsers(prefix, size));
+    }
+
+    /**
+     * Tagged with the user's own revision; Spring answers a matching {@code If-None-Match} with
+     * 304 and no body. A miss is a plain 404 problem detail, with
+     * no exception thrown.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable UUID id){
-        User user = userService.getUserById(id);
-        return ResponseEntity.ok(user);
+    public ResponseEntity<?> getUserById(@PathVariable UUID id){
+        Optional<VersionedUser> versioned = userService.findVersionedUserById(id);
+        if (versioned.isEmpty()) {
+            return ResponseEntity.of(ProblemDetail.forStatus(HttpStatus.NOT_FOUND)).build();
+        }
+        return conditional(ResponseEntity.ok(), versioned.get().revision()).body(versioned.get().user());
     }
 
+    /**
+     * Tagged with the revision of the whole store. The revision is read before the page so the tag
+     * can only be older than the data, never newer, so a stale tag costs one extra full response.
+     * No {@code Last-Modified} is sent: with one-second precision and the client's clock, two
+     * writes in the same second would be indistinguishable and earn a 304 for changed data.
+     */
     @GetMapping
-    public ResponseEntity<List<User>> getUserByName(@RequestParam(required = false) String name){
-        List<User> users = userService.searchUsersByName(name);
-        return ResponseEntity.ok(users);
+    public ResponseEntity<List<User>> getUserByName(@RequestParam(required = false) String name,
+                                                    @RequestParam(required = false) Integer limit,
+                                                    @RequestParam(required = false) Long cursor,
+                                                    WebRequest request){
+        Revision revision = userService.getUsersRevision();
+        if (request.checkNotModified(revision.etag())) {
+            return null;
+        }
+        int pageSize = Math.max(1, Math.min(limit == null ? defaultLimit : limit, maxLimit));
+        UserPage page = userService.getUsersPage(name, cursor, pageSize);
+
+        ResponseEntity.BodyBuilder response = conditional(ResponseEntity.ok(), revision);
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor().toString());
+        }
+        return response.body(page.users());
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsers(@RequestParam(required = false) String name){
+        StreamingResponseBody body = out -> {
+            try (Stream<User> users = userService.streamUsersByName(name);
+                 JsonGenerator generator = userWriter.createGenerator(out)) {
+                Iterator<User> iterator = users.iterator();
+                int written = 0;
+                while (iterator.hasNext()) {
+                    userWriter.writeValue(generator, iterator.next());
+                    generator.writeRaw('\n');
+                    if (++written % FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private ObjectReader bulkReader(MediaType contentType) {
+        if (contentType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+            return cborUserRequestReader;
+        }
+        if (contentType.isCompatibleWith(MediaType.valueOf(APPLICATION_SMILE))) {
+            return smileUserRequestReader;
+        }
+        return userRequestReader;
+    }
+
+    private static ResponseEntity.BodyBuilder conditional(ResponseEntity.BodyBuilder response, Revision revision) {
+        return response.eTag(revision.etag()).cacheControl(CacheControl.noCache());
+    }
+
+    /**
+     * Surfaces malformed elements as a 400 instead of the generic runtime wrapper used by
+     * {@link MappingIterator#hasNext()}.
+     */
+    private static final class BulkRequestIterator implements Iterator<UserRequest> {
+        private final MappingIterator<UserRequest> delegate;
+
+        private BulkRequestIterator(MappingIterator<UserRequest> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                return delegate.hasNextValue();
+            } catch (JsonProcessingException e) {
+                throw new InvalidBulkPayloadException(e.getOriginalMessage(), e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public UserRequest next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                return delegate.nextValue();
+            } catch (JsonProcessingException e) {
+                throw new InvalidBulkPayloadException(e.getOriginalMessage(), e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
     }
 
 }
@@ -0,0 +1,19 @@
+package cat.itacademy.s04.t01.userapi.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. When the payload turned malformed part way through, {@code stoppedAt}
+ * is the position of the element that could not be read and {@code error} says why; every element
+ * before it has been processed and is reported in {@code items}. Both are null for a complete read.
+ */
+public record BulkImportResult(int created, int rejected, List<BulkItemResult> items, Integer stoppedAt, String error) {
+
+    public BulkImportResult(int created, int rejected, List<BulkItemResult> items) {
+        this(created, rejected, items, null, null);
+    }
+
+    public boolean complete() {
+        return error == null;
+    }
+}
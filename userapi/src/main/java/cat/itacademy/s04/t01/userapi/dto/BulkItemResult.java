@@ -0,0 +1,33 @@
+package cat.itacademy.s04.t01.userapi.dto;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+
+import java.util.UUID;
+
+/**
+ * Outcome of one element of a bulk import, identified by its position in the request.
+ */
+public record BulkItemResult(int index, Status status, User user, String error) {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+
+    public static BulkItemResult created(int index, User user) {
+        return new BulkItemResult(index, Status.CREATED, user, null);
+    }
+
+    public static BulkItemResult duplicate(int index, String email) {
+        return new BulkItemResult(index, Status.DUPLICATE, null, "Email already registered: " + email);
+    }
+
+    public static BulkItemResult duplicateId(int index, UUID id) {
+        return new BulkItemResult(index, Status.DUPLICATE, null, "User already exists: " + id);
+    }
+
+    public static BulkItemResult invalid(int index, String error) {
+        return new BulkItemResult(index, Status.INVALID, null, error);
+    }
+}
@@ -0,0 +1,22 @@
+package cat.itacademy.s04.t01.userapi.dto;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+
+import java.util.UUID;
+
+/**
+ * Outcome of registering a user. A taken email, or a client-supplied id that already exists, is
+ * an expected answer, not an error, so it is a value the caller switches on rather than an
+ * exception.
+ */
+public sealed interface CreateUserResult {
+
+    record Created(User user) implements CreateUserResult {
+    }
+
+    record DuplicateEmail(String email) implements CreateUserResult {
+    }
+
+    record DuplicateId(UUID id) implements CreateUserResult {
+    }
+}
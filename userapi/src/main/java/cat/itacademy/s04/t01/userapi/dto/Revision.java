@@ -0,0 +1,16 @@
+package cat.itacademy.s04.t01.userapi.dto;
+
+/**
+ * Change marker of a user or of the whole store. {@code version} grows with every write;
+ * {@code epoch} is drawn at random when the store is created, so versions handed out before a
+ * restart never match the ones after it.
+ */
+public record Revision(long epoch, long version) {
+
+    /**
+     * Strong entity tag for HTTP conditional requests.
+     */
+    public String etag() {
+        return "\"" + Long.toHexString(epoch) + "-" + Long.toHexString(version) + "\"";
+    }
+}
@@ -0,0 +1,16 @@
+package cat.itacademy.s04.t01.userapi.dto;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+
+/**
+ * One entry of the change feed. Sequences start at 1 and grow by one per change; {@code user} is
+ * the user as stored by a {@link Type#SAVED} change and {@code null} for {@link Type#CLEARED}.
+ * {@code timestamp} is in epoch milliseconds.
+ */
+public record UserChange(long sequence, Type type, User user, long timestamp) {
+
+    public enum Type {
+        SAVED,
+        CLEARED
+    }
+}
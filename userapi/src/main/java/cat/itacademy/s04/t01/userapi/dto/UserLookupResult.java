@@ -0,0 +1,13 @@
+package cat.itacademy.s04.t01.userapi.dto;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Answer to a multi-get: the users found, in request order, and the requested ids that matched
+ * nobody.
+ */
+public record UserLookupResult(List<User> users, List<UUID> missing) {
+}
@@ -0,0 +1,12 @@
+package cat.itacademy.s04.t01.userapi.dto;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+
+import java.util.List;
+
+/**
+ * One page of users in creation order. {@code nextCursor} is passed back to fetch the following
+ * page and is {@code null} on the last one.
+ */
+public record UserPage(List<User> users, Long nextCursor) {
+}
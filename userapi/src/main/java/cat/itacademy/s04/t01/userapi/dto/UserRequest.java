@@ -0,0 +1,10 @@
+package cat.itacademy.s04.t01.userapi.dto;
+
+import java.util.UUID;
+
+/**
+ * Raw user payload as received in bulk imports, before the {@link
+ * cat.itacademy.s04.t01.userapi.entities.User} constructor validates it.
+ */
+public record UserRequest(UUID id, String name, String email) {
+}
@@ -0,0 +1,15 @@
+package cat.itacademy.s04.t01.userapi.dto;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+
+import java.util.UUID;
+
+/**
+ * Autocomplete entry: just what a type-ahead list needs to show a user and link to it.
+ */
+public record UserSuggestion(UUID id, String name) {
+
+    public static UserSuggestion of(User user) {
+        return new UserSuggestion(user.getId(), user.getName());
+    }
+}
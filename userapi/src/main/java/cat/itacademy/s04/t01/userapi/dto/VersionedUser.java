@@ -0,0 +1,9 @@
+package cat.itacademy.s04.t01.userapi.dto;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+
+/**
+ * A user together with the revision of its last write, read in one step.
+ */
+public record VersionedUser(User user, Revision revision) {
+}
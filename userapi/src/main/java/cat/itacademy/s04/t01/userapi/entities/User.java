@@ -1,14 +1,19 @@
 package cat.itacademy.s04.t01.userapi.entities;
 
+import java.util.Objects;
 import java.util.UUID;
 
-public class User {
-    private UUID id;
-    private String name;
-    private String email;
+/**
+ * Immutable user value. A user created without an id gets one through {@link #withId(UUID)} when
+ * it is stored.
+ */
+public final class User {
+    private final UUID id;
+    private final String name;
+    private final String email;
 
     public User(UUID id, String name, String email) {
-        if (name.isEmpty()) {
+        if (name == null || name.isEmpty()) {
             throw new IllegalArgumentException("The name cannot be empty.");
         }
         if (email == null || email.isEmpty() || !email.contains("@")) {
@@ -31,8 +36,24 @@ public class User {
         return email;
     }
 
-    public void setId(UUID id) {
-        this.id = id;
+    public User withId(UUID id) {
+        return new User(id, name, email);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof User other)) {
+            return false;
+        }
+        return Objects.equals(id, other.id) && name.equals(other.name) && email.equals(other.email);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, email);
     }
 
     @Override
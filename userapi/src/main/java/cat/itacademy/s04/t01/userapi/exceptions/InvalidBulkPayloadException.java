@@ -0,0 +1,11 @@
+package cat.itacademy.s04.t01.userapi.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBulkPayloadException extends RuntimeException {
+    public InvalidBulkPayloadException(String message, Throwable cause) {
+        super("Malformed bulk payload: " + message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package cat.itacademy.s04.t01.userapi.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidLookupException extends RuntimeException {
+    public InvalidLookupException(int index) {
+        super("Null id in lookup at index " + index);
+    }
+}
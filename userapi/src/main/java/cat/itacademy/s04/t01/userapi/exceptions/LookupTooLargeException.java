@@ -0,0 +1,11 @@
+package cat.itacademy.s04.t01.userapi.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class LookupTooLargeException extends RuntimeException {
+    public LookupTooLargeException(int requested, int max) {
+        super("Too many ids in lookup: " + requested + ", at most " + max);
+    }
+}
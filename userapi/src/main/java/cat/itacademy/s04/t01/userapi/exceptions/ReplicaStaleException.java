@@ -0,0 +1,13 @@
+package cat.itacademy.s04.t01.userapi.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ReplicaStaleException extends RuntimeException {
+    public ReplicaStaleException(Duration maxStaleness) {
+        super("Replica has not been in sync with the leader for more than " + maxStaleness);
+    }
+}
@@ -5,9 +5,13 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 import java.util.UUID;
 
+/**
+ * Thrown by the callers that still signal a miss with an exception. Misses are routine, so no
+ * stack trace is captured.
+ */
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class UserNotFoundException extends RuntimeException {
     public UserNotFoundException(UUID id) {
-        super("User not found: " + id);
+        super("User not found: " + id, null, false, false);
     }
 }
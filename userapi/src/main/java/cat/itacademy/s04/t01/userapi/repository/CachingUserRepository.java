@@ -0,0 +1,143 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.dto.VersionedUser;
+import cat.itacademy.s04.t01.userapi.entities.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Read-through cache in front of {@link #findById(UUID)} and {@link #findVersionedById(UUID)} for
+ * slower backing stores. Entries keep the user with its revision, so the ETag of a single-user
+ * response is served from the cache as well. The Caffeine cache is bounded by entry count with W-TinyLFU eviction. Misses are cached too, with their own
+ * shorter lifetime, so repeated lookups of unknown ids stop reaching the store.
+ *
+ * <p>Writes invalidate the affected id after the delegate has applied them. Caffeine waits for
+ * any in-flight load of that id before removing it, so a stale value cannot be cached.
+ */
+public class CachingUserRepository extends DelegatingUserRepository {
+    private final Cache<UUID, Optional<VersionedUser>> cache;
+
+    public CachingUserRepository(UserRepository delegate, long maximumSize, Duration ttl, Duration negativeTtl) {
+        super(delegate);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new HitOrMissExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Optional<User> findById(UUID id) {
+        if (id == null) {
+            throw new IllegalArgumentException("The id cannot be null");
+        }
+        return findVersionedById(id).map(VersionedUser::user);
+    }
+
+    @Override
+    public Optional<VersionedUser> findVersionedById(UUID id) {
+        if (id == null) {
+            throw new IllegalArgumentException("The id cannot be null");
+        }
+        return cache.get(id, delegate::findVersionedById);
+    }
+
+    /**
+     * Serves cached ids from the cache and fetches all the others from the delegate in one batch.
+     * The fetched users are not cached: unlike a per-key load, a Caffeine bulk load does not hold
+     * off a concurrent invalidation, so a write landing during the fetch could leave its old value,
+     * or a miss, cached until expiry.
+     */
+    @Override
+    public List<User> findAllById(Collection<UUID> ids) {
+        for (UUID id : ids) {
+            if (id == null) {
+                throw new IllegalArgumentException("The id cannot be null");
+            }
+        }
+        Map<UUID, Optional<VersionedUser>> cached = cache.getAllPresent(ids);
+        Map<UUID, User> fetched = new HashMap<>();
+        if (cached.size() < ids.size()) {
+            Set<UUID> misses = new LinkedHashSet<>(ids);
+            misses.removeAll(cached.keySet());
+            if (!misses.isEmpty()) {
+                delegate.findAllById(misses).forEach(user -> fetched.put(user.getId(), user));
+            }
+        }
+        List<User> users = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            Optional<VersionedUser> hit = cached.get(id);
+            User user = hit != null ? hit.map(VersionedUser::user).orElse(null) : fetched.get(id);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public User save(User user) {
+        User saved = delegate.save(user);
+        cache.invalidate(saved.getId());
+        return saved;
+    }
+
+    @Override
+    public Optional<User> insertIfEmailAbsent(User user) {
+        Optional<User> inserted = delegate.insertIfEmailAbsent(user);
+        inserted.ifPresent(stored -> cache.invalidate(stored.getId()));
+        return inserted;
+    }
+
+    @Override
+    public List<Optional<User>> saveAll(List<User> users) {
+        List<Optional<User>> results = delegate.saveAll(users);
+        results.forEach(result -> result.ifPresent(stored -> cache.invalidate(stored.getId())));
+        return results;
+    }
+
+    @Override
+    public void deleteAll() {
+        delegate.deleteAll();
+        cache.invalidateAll();
+    }
+
+    public Cache<UUID, Optional<VersionedUser>> cache() {
+        return cache;
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private record HitOrMissExpiry(long ttlNanos, long negativeTtlNanos) implements Expiry<UUID, Optional<VersionedUser>> {
+
+        @Override
+        public long expireAfterCreate(UUID id, Optional<VersionedUser> user, long currentTime) {
+            return user.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(UUID id, Optional<VersionedUser> user, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, user, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(UUID id, Optional<VersionedUser> user, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
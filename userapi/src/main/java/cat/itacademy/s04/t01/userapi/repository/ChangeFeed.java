@@ -0,0 +1,113 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.dto.UserChange;
+import cat.itacademy.s04.t01.userapi.entities.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process ring of the newest {@code capacity} changes, in the order they were applied.
+ * Consumers track the sequence of the last change they saw and read on from there; one that falls
+ * further behind than the ring holds has to rescan the users instead.
+ */
+public final class ChangeFeed {
+    private final UserChange[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private long head;
+
+    public ChangeFeed(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The feed capacity must be positive.");
+        }
+        this.ring = new UserChange[capacity];
+    }
+
+    void appendSaved(User user) {
+        append(UserChange.Type.SAVED, user);
+    }
+
+    void appendSaved(List<User> users) {
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            for (User user : users) {
+                long sequence = ++head;
+                ring[(int) (sequence % ring.length)] = new UserChange(sequence, UserChange.Type.SAVED, user, now);
+            }
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void appendCleared() {
+        append(UserChange.Type.CLEARED, null);
+    }
+
+    /**
+     * Sequence of the newest change, or 0 when nothing changed yet.
+     */
+    public long head() {
+        lock.lock();
+        try {
+            return head;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sequence just before the oldest change still retained: reading after it returns every change
+     * the feed holds.
+     */
+    public long tail() {
+        lock.lock();
+        try {
+            return Math.max(0, head - ring.length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code max} changes following {@code after}, waiting up to {@code timeout} for
+     * the first one. An empty list means the wait timed out; {@code null} means the changes were
+     * already overwritten, or {@code after} is ahead of the feed.
+     */
+    public List<UserChange> read(long after, int max, long timeout, TimeUnit unit) throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = unit.toNanos(timeout);
+            while (head == after && remaining > 0) {
+                remaining = appended.awaitNanos(remaining);
+            }
+            if (after < 0 || after > head || head - after > ring.length) {
+                return null;
+            }
+            int count = (int) Math.min(max, head - after);
+            List<UserChange> changes = new ArrayList<>(count);
+            for (long sequence = after + 1; sequence <= after + count; sequence++) {
+                changes.add(ring[(int) (sequence % ring.length)]);
+            }
+            return changes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(UserChange.Type type, User user) {
+        lock.lock();
+        try {
+            long sequence = ++head;
+            ring[(int) (sequence % ring.length)] = new UserChange(sequence, type, user, System.currentTimeMillis());
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
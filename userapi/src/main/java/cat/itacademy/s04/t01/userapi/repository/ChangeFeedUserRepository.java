@@ -0,0 +1,87 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Publishes every applied write to a {@link ChangeFeed}. Each write and its publication happen
+ * under a lock striped by user id, so the feed lists the writes to one user in the order the store
+ * applied them. A batch locks the stripes of all its ids, in stripe order, and still reaches the
+ * delegate as one {@link #saveAll(List)}. On a replication follower the leader's events are applied
+ * through this layer, so its feed lists them as they are replicated.
+ */
+public class ChangeFeedUserRepository extends DelegatingUserRepository {
+    private final ChangeFeed feed;
+    private final StripedLocks stripes = new StripedLocks();
+
+    public ChangeFeedUserRepository(UserRepository delegate, ChangeFeed feed) {
+        super(delegate);
+        this.feed = feed;
+    }
+
+    @Override
+    public User save(User user) {
+        User stored = InMemoryUserRepository.storable(user);
+        ReentrantLock stripe = stripes.stripeFor(stored.getId());
+        stripe.lock();
+        try {
+            User saved = delegate.save(stored);
+            feed.appendSaved(saved);
+            return saved;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    @Override
+    public Optional<User> insertIfEmailAbsent(User user) {
+        User stored = InMemoryUserRepository.storable(user);
+        ReentrantLock stripe = stripes.stripeFor(stored.getId());
+        stripe.lock();
+        try {
+            Optional<User> inserted = delegate.insertIfEmailAbsent(stored);
+            inserted.ifPresent(feed::appendSaved);
+            return inserted;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    @Override
+    public List<Optional<User>> saveAll(List<User> users) {
+        List<User> stored = new ArrayList<>(users.size());
+        BitSet locked = new BitSet();
+        for (User user : users) {
+            User withId = InMemoryUserRepository.storable(user);
+            stored.add(withId);
+            locked.set(StripedLocks.stripeOf(withId.getId()));
+        }
+        stripes.lock(locked);
+        try {
+            List<Optional<User>> results = delegate.saveAll(stored);
+            List<User> inserted = new ArrayList<>(results.size());
+            results.forEach(result -> result.ifPresent(inserted::add));
+            feed.appendSaved(inserted);
+            return results;
+        } finally {
+            stripes.unlock(locked);
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        BitSet all = StripedLocks.all();
+        stripes.lock(all);
+        try {
+            delegate.deleteAll();
+            feed.appendCleared();
+        } finally {
+            stripes.unlock(all);
+        }
+    }
+}
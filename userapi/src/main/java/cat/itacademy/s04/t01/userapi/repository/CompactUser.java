@@ -0,0 +1,48 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Storage form of a user inside {@link InMemoryUserRepository}: one object holding the id (the
+ * same instance as the map key), the insertion sequence, the version of its last write and
+ * name and email as UTF-8 bytes. This replaces the {@link User} plus two {@link String} objects kept per record otherwise.
+ * {@link User} instances are materialized on read.
+ */
+final class CompactUser {
+    private final UUID id;
+    private final long sequence;
+    private final long version;
+    private final byte[] name;
+    private final byte[] email;
+
+    CompactUser(UUID id, long sequence, long version, User user) {
+        this.id = id;
+        this.sequence = sequence;
+        this.version = version;
+        this.name = user.getName().getBytes(StandardCharsets.UTF_8);
+        this.email = user.getEmail().getBytes(StandardCharsets.UTF_8);
+    }
+
+    UUID id() {
+        return id;
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    long version() {
+        return version;
+    }
+
+    String email() {
+        return new String(email, StandardCharsets.UTF_8);
+    }
+
+    User toUser() {
+        return new User(id, new String(name, StandardCharsets.UTF_8), new String(email, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,94 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.dto.Revision;
+import cat.itacademy.s04.t01.userapi.dto.UserPage;
+import cat.itacademy.s04.t01.userapi.dto.VersionedUser;
+import cat.itacademy.s04.t01.userapi.entities.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Base class for repositories that decorate another one. Every operation is forwarded as is, so
+ * subclasses only override what they add behaviour to.
+ */
+public abstract class DelegatingUserRepository implements UserRepository {
+    protected final UserRepository delegate;
+
+    protected DelegatingUserRepository(UserRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public User save(User user) {
+        return delegate.save(user);
+    }
+
+    @Override
+    public Optional<User> insertIfEmailAbsent(User user) {
+        return delegate.insertIfEmailAbsent(user);
+    }
+
+    @Override
+    public List<Optional<User>> saveAll(List<User> users) {
+        return delegate.saveAll(users);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Optional<User> findById(UUID id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Optional<VersionedUser> findVersionedById(UUID id) {
+        return delegate.findVersionedById(id);
+    }
+
+    @Override
+    public List<User> findAllById(Collection<UUID> ids) {
+        return delegate.findAllById(ids);
+    }
+
+    @Override
+    public List<User> searchByName(String name) {
+        return delegate.searchByName(name);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return delegate.existsByEmail(email);
+    }
+
+    @Override
+    public List<User> findByNamePrefix(String prefix, int limit) {
+        return delegate.findByNamePrefix(prefix, limit);
+    }
+
+    @Override
+    public UserPage findPage(String name, Long cursor, int limit) {
+        return delegate.findPage(name, cursor, limit);
+    }
+
+    @Override
+    public Stream<User> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public void deleteAll() {
+        delegate.deleteAll();
+    }
+
+    @Override
+    public Revision revision() {
+        return delegate.revision();
+    }
+}
@@ -1,34 +1,97 @@
 package cat.itacademy.s04.t01.userapi.repository;
 
+import cat.itacademy.s04.t01.userapi.dto.Revision;
+import cat.itacademy.s04.t01.userapi.dto.UserPage;
+import cat.itacademy.s04.t01.userapi.dto.VersionedUser;
 import cat.itacademy.s04.t01.userapi.entities.User;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
+/**
+ * Thread-safe in-memory store. Users are indexed by id in a {@link ConcurrentHashMap}, so lookups
+ * and saves only contend on the bin of the key involved, while a skip list keyed by insertion
+ * sequence keeps {@link #findAll()} in creation order without a global lock. A secondary index maps
+ * each normalized email to its owner id, backing O(1) duplicate checks, and a {@link NameIndex}
+ * answers name searches without lower-casing every stored name per request.
+ *
+ * <p>Both maps share one {@link CompactUser} per record rather than keeping {@link User} objects.
+ */
 @Repository
 public class InMemoryUserRepository implements UserRepository {
-    List<User> users = new ArrayList<>();
-    private final Map<UUID, User> storage = new HashMap<>();
+    private final Map<UUID, CompactUser> storage = new ConcurrentHashMap<>();
+    private final NavigableMap<Long, CompactUser> timeline = new ConcurrentSkipListMap<>();
+    private final Map<String, UUID> emailIndex = new ConcurrentHashMap<>();
+    private final NameIndex nameIndex;
+    private final AtomicLong sequence;
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicLong completedWrites = new AtomicLong();
+    private final long epoch = ThreadLocalRandom.current().nextLong();
+
+    public InMemoryUserRepository() {
+        this(ParallelScan.sequential());
+    }
+
+    @Autowired
+    public InMemoryUserRepository(ParallelScan scan) {
+        this(scan, new AtomicLong());
+    }
+
+    /**
+     * Numbers new users from {@code sequence}, so stores sharing it keep one creation order.
+     */
+    InMemoryUserRepository(ParallelScan scan, AtomicLong sequence) {
+        this.nameIndex = new NameIndex(scan);
+        this.sequence = sequence;
+    }
 
     @Override
     public User save(User user) {
-        UUID id = user.getId();
+        User stored = storable(user);
+        String email = normalizeEmail(stored.getEmail());
+        UUID owner = emailIndex.putIfAbsent(email, stored.getId());
+        if (owner != null && !owner.equals(stored.getId())) {
+            throw new IllegalArgumentException("Email already registered: " + stored.getEmail());
+        }
+        store(stored, true);
+        return stored;
+    }
 
-        if (user == null) {
-            throw new IllegalArgumentException("The user cannot be null.");
+    @Override
+    public Optional<User> insertIfEmailAbsent(User user) {
+        User stored = storable(user);
+        String email = normalizeEmail(stored.getEmail());
+        if (emailIndex.putIfAbsent(email, stored.getId()) != null) {
+            return Optional.empty();
         }
-        if (id == null) {
-            id = UUID.randomUUID();
-            user.setId(id);
+        if (!store(stored, false)) {
+            emailIndex.remove(email, stored.getId());
+            return Optional.empty();
         }
+        return Optional.of(stored);
+    }
 
-        users.add(user);
-        return user;
+    @Override
+    public List<Optional<User>> saveAll(List<User> users) {
+        List<Optional<User>> results = new ArrayList<>(users.size());
+        for (User user : users) {
+            results.add(insertIfEmailAbsent(user));
+        }
+        return results;
     }
 
     @Override
     public List<User> findAll() {
-
+        List<User> users = new ArrayList<>();
+        for (CompactUser stored : timeline.values()) {
+            users.add(stored.toUser());
+        }
         return users;
     }
 
@@ -37,22 +100,42 @@ public class InMemoryUserRepository implements UserRepository {
         if(id == null){
             throw new IllegalArgumentException("The id cannot be null");
         }
-        return users.stream()
-                .filter(u -> u.getId().equals(id))
-                .findFirst();
+        CompactUser stored = storage.get(id);
+        return stored == null ? Optional.empty() : Optional.of(stored.toUser());
+    }
+
+    @Override
+    public Optional<VersionedUser> findVersionedById(UUID id) {
+        if (id == null) {
+            throw new IllegalArgumentException("The id cannot be null");
+        }
+        CompactUser stored = storage.get(id);
+        return stored == null ? Optional.empty()
+                : Optional.of(new VersionedUser(stored.toUser(), new Revision(epoch, stored.version())));
+    }
+
+    @Override
+    public List<User> findAllById(Collection<UUID> ids) {
+        List<User> users = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            if (id == null) {
+                throw new IllegalArgumentException("The id cannot be null");
+            }
+            CompactUser stored = storage.get(id);
+            if (stored != null) {
+                users.add(stored.toUser());
+            }
+        }
+        return users;
     }
 
     @Override
     public List<User> searchByName(String name) {
         if(name == null || name.isBlank()){
-            return users;
+            return findAll();
         }
 
-        String lower = name.toLowerCase();
-
-        return users.stream()
-                .filter(u -> u.getName().toLowerCase().contains(lower))
-                .toList();
+        return search(name, 0).stream().map(CompactUser::toUser).toList();
     }
 
     @Override
@@ -61,8 +144,162 @@ public class InMemoryUserRepository implements UserRepository {
             throw new IllegalArgumentException("The email is invalid.");
         }
 
-        return users.stream()
-                .anyMatch(u -> u.getEmail().equals(email));
+        return emailIndex.containsKey(normalizeEmail(email));
+    }
 
+    @Override
+    public List<User> findByNamePrefix(String prefix, int limit) {
+        List<User> users = new ArrayList<>();
+        for (UUID id : nameIndex.complete(prefix, limit)) {
+            CompactUser stored = storage.get(id);
+            if (stored != null) {
+                users.add(stored.toUser());
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public UserPage findPage(String name, Long cursor, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("The limit must be positive.");
+        }
+        long after = cursor == null ? 0 : cursor;
+
+        List<User> users = new ArrayList<>(limit);
+        Long last = null;
+        boolean more = false;
+        if (name == null || name.isBlank()) {
+            for (CompactUser stored : timelineAfter(after)) {
+                if (users.size() == limit) {
+                    more = true;
+                    break;
+                }
+                users.add(stored.toUser());
+                last = stored.sequence();
+            }
+        } else {
+            for (CompactUser stored : search(name, after)) {
+                if (users.size() == limit) {
+                    more = true;
+                    break;
+                }
+                users.add(stored.toUser());
+                last = stored.sequence();
+            }
+        }
+        return new UserPage(users, more ? last : null);
+    }
+
+    @Override
+    public Stream<User> streamAll() {
+        return timeline.values().stream().map(CompactUser::toUser);
+    }
+
+    @Override
+    public void deleteAll() {
+        removeAll();
+    }
+
+    @Override
+    public Revision revision() {
+        return new Revision(epoch, completedWrites.get());
+    }
+
+    /**
+     * Live view of the users created after sequence {@code after}, in creation order.
+     */
+    Collection<CompactUser> timelineAfter(long after) {
+        return timeline.tailMap(after, false).values();
+    }
+
+    /**
+     * The users matching {@code name} created after sequence {@code after}, in creation order.
+     */
+    List<CompactUser> search(String name, long after) {
+        return nameIndex.search(name).stream()
+                .map(storage::get)
+                .filter(stored -> stored != null && stored.sequence() > after)
+                .sorted(Comparator.comparingLong(CompactUser::sequence))
+                .toList();
+    }
+
+    /**
+     * Deletes every user and returns the deleted ones, so a caller keeping its own index over
+     * this store can drop exactly their entries.
+     */
+    List<User> removeAll() {
+        List<User> removed = new ArrayList<>();
+        storage.keySet().forEach(id -> storage.computeIfPresent(id, (key, stored) -> {
+            timeline.remove(stored.sequence());
+            emailIndex.remove(normalizeEmail(stored.email()), key);
+            nameIndex.remove(key);
+            removed.add(stored.toUser());
+            return null;
+        }));
+        completeWrite();
+        return removed;
+    }
+
+    /**
+     * Writes the user; the store revision only moves once the write is visible, so a reader that
+     * saw a revision also sees every write it counts. Without {@code replace}, an existing user
+     * with the same id is left untouched and false is returned.
+     */
+    private boolean store(User user, boolean replace) {
+        long version = versions.incrementAndGet();
+        CompactUser current = storage.compute(user.getId(), (key, previous) -> {
+            if (previous != null && !replace) {
+                return previous;
+            }
+            long seq;
+            if (previous == null) {
+                seq = sequence.incrementAndGet();
+            } else {
+                seq = previous.sequence();
+                String previousEmail = normalizeEmail(previous.email());
+                if (!previousEmail.equals(normalizeEmail(user.getEmail()))) {
+                    emailIndex.remove(previousEmail, key);
+                }
+            }
+            CompactUser stored = new CompactUser(key, seq, version, user);
+            timeline.put(seq, stored);
+            nameIndex.put(key, user.getName());
+            return stored;
+        });
+        if (current.version() != version) {
+            return false;
+        }
+        completeWrite();
+        return true;
+    }
+
+    private void completeWrite() {
+        completedWrites.incrementAndGet();
+    }
+
+    /**
+     * Email index key: surrounding whitespace is dropped and the domain is lower-cased, since
+     * domains are case-insensitive. The local part keeps its case. Every storage engine keys its
+     * email index this way.
+     */
+    public static String normalizeEmail(String email) {
+        String trimmed = email.trim();
+        int at = trimmed.lastIndexOf('@');
+        if (at < 0) {
+            return trimmed;
+        }
+        return trimmed.substring(0, at + 1) + trimmed.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The user as every storage engine stores it: a missing user is rejected and a user created
+     * without an id gets a random one.
+     */
+    public static User storable(User user) {
+        if (user == null) {
+            throw new IllegalArgumentException("The user cannot be null.");
+        }
+        return user.getId() != null ? user : user.withId(UUID.randomUUID());
     }
 }
@@ -0,0 +1,207 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.dto.UserPage;
+import cat.itacademy.s04.t01.userapi.dto.VersionedUser;
+import cat.itacademy.s04.t01.userapi.entities.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Records latency of every repository operation as {@code userapi.repository.operations}, the
+ * size of list results, whether id and email lookups found something and how many inserts were
+ * rejected for a taken id or a duplicate email. Meters are created up front so the hot path only
+ * records.
+ */
+public class MeteredUserRepository extends DelegatingUserRepository {
+    private static final String OPERATIONS = "userapi.repository.operations";
+    private static final String RESULTS = "userapi.repository.results";
+    private static final String LOOKUPS = "userapi.repository.index.lookups";
+
+    private final Timer saveTimer;
+    private final Timer insertTimer;
+    private final Timer saveAllTimer;
+    private final Timer findAllTimer;
+    private final Timer findByIdTimer;
+    private final Timer findAllByIdTimer;
+    private final Timer searchTimer;
+    private final Timer existsTimer;
+    private final Timer findPageTimer;
+    private final Timer prefixTimer;
+    private final Timer deleteAllTimer;
+
+    private final DistributionSummary findAllResults;
+    private final DistributionSummary findAllByIdResults;
+    private final DistributionSummary searchResults;
+    private final DistributionSummary pageResults;
+    private final DistributionSummary prefixResults;
+    private final DistributionSummary batchSizes;
+
+    private final Counter idHits;
+    private final Counter idMisses;
+    private final Counter emailHits;
+    private final Counter emailMisses;
+    private final Counter duplicateIds;
+    private final Counter duplicateEmails;
+
+    public MeteredUserRepository(UserRepository delegate, MeterRegistry registry) {
+        super(delegate);
+        saveTimer = timer(registry, "save");
+        insertTimer = timer(registry, "insertIfEmailAbsent");
+        saveAllTimer = timer(registry, "saveAll");
+        findAllTimer = timer(registry, "findAll");
+        findByIdTimer = timer(registry, "findById");
+        findAllByIdTimer = timer(registry, "findAllById");
+        searchTimer = timer(registry, "searchByName");
+        existsTimer = timer(registry, "existsByEmail");
+        findPageTimer = timer(registry, "findPage");
+        prefixTimer = timer(registry, "findByNamePrefix");
+        deleteAllTimer = timer(registry, "deleteAll");
+
+        findAllResults = results(registry, "findAll");
+        findAllByIdResults = results(registry, "findAllById");
+        searchResults = results(registry, "searchByName");
+        pageResults = results(registry, "findPage");
+        prefixResults = results(registry, "findByNamePrefix");
+        batchSizes = results(registry, "saveAll");
+
+        idHits = lookup(registry, "id", "hit");
+        idMisses = lookup(registry, "id", "miss");
+        emailHits = lookup(registry, "email", "hit");
+        emailMisses = lookup(registry, "email", "miss");
+        duplicateIds = Counter.builder("userapi.repository.duplicate.ids")
+                .description("Inserts rejected because a user with the same id already existed")
+                .register(registry);
+        duplicateEmails = Counter.builder("userapi.repository.duplicate.emails")
+                .description("Inserts rejected because the email was already registered")
+                .register(registry);
+    }
+
+    @Override
+    public User save(User user) {
+        return saveTimer.record(() -> delegate.save(user));
+    }
+
+    @Override
+    public Optional<User> insertIfEmailAbsent(User user) {
+        Optional<User> result = insertTimer.record(() -> delegate.insertIfEmailAbsent(user));
+        if (result.isEmpty()) {
+            countRejected(user);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Optional<User>> saveAll(List<User> users) {
+        List<Optional<User>> results = saveAllTimer.record(() -> delegate.saveAll(users));
+        batchSizes.record(users.size());
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).isEmpty()) {
+                countRejected(users.get(i));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public List<User> findAll() {
+        List<User> users = findAllTimer.record(delegate::findAll);
+        findAllResults.record(users.size());
+        return users;
+    }
+
+    @Override
+    public Optional<User> findById(UUID id) {
+        Optional<User> user = findByIdTimer.record(() -> delegate.findById(id));
+        (user.isPresent() ? idHits : idMisses).increment();
+        return user;
+    }
+
+    @Override
+    public List<User> searchByName(String name) {
+        List<User> users = searchTimer.record(() -> delegate.searchByName(name));
+        searchResults.record(users.size());
+        return users;
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        boolean exists = existsTimer.record(() -> delegate.existsByEmail(email));
+        (exists ? emailHits : emailMisses).increment();
+        return exists;
+    }
+
+    @Override
+    public Optional<VersionedUser> findVersionedById(UUID id) {
+        Optional<VersionedUser> user = findByIdTimer.record(() -> delegate.findVersionedById(id));
+        (user.isPresent() ? idHits : idMisses).increment();
+        return user;
+    }
+
+    @Override
+    public List<User> findAllById(Collection<UUID> ids) {
+        List<User> users = findAllByIdTimer.record(() -> delegate.findAllById(ids));
+        findAllByIdResults.record(users.size());
+        idHits.increment(users.size());
+        idMisses.increment(ids.size() - users.size());
+        return users;
+    }
+
+    @Override
+    public List<User> findByNamePrefix(String prefix, int limit) {
+        List<User> users = prefixTimer.record(() -> delegate.findByNamePrefix(prefix, limit));
+        prefixResults.record(users.size());
+        return users;
+    }
+
+    @Override
+    public UserPage findPage(String name, Long cursor, int limit) {
+        UserPage page = findPageTimer.record(() -> delegate.findPage(name, cursor, limit));
+        pageResults.record(page.users().size());
+        return page;
+    }
+
+    @Override
+    public void deleteAll() {
+        deleteAllTimer.record(delegate::deleteAll);
+    }
+
+    /**
+     * The store does not say which check refused an insert, so a rejected user whose id is now
+     * stored counts as a taken id and any other as a duplicate email.
+     */
+    private void countRejected(User user) {
+        boolean idTaken = user.getId() != null && delegate.findById(user.getId()).isPresent();
+        (idTaken ? duplicateIds : duplicateEmails).increment();
+    }
+
+    private static Timer timer(MeterRegistry registry, String operation) {
+        return Timer.builder(OPERATIONS)
+                .description("Latency of user repository operations")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static DistributionSummary results(MeterRegistry registry, String operation) {
+        return DistributionSummary.builder(RESULTS)
+                .description("Number of users returned or written per call")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static Counter lookup(MeterRegistry registry, String index, String result) {
+        return Counter.builder(LOOKUPS)
+                .description("Point lookups by index and outcome")
+                .tag("index", index)
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,156 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Case-insensitive substring index over user names. Names are lower-cased once when they are
+ * indexed, and every distinct trigram of a name points to the ids containing it. A query of three
+ * or more characters only inspects the ids of its rarest trigram; shorter queries fall back to a
+ * scan over the pre-normalized names, split across a {@link ParallelScan} when there are many. A
+ * set of the names in sorted order answers prefix queries for autocomplete.
+ */
+public class NameIndex {
+    static final int GRAM = 3;
+
+    private final Map<UUID, String> normalizedNames = new ConcurrentHashMap<>();
+    private final Map<String, Set<UUID>> postings = new ConcurrentHashMap<>();
+    private final NavigableSet<SortedName> sortedNames = new ConcurrentSkipListSet<>();
+    private final ParallelScan scan;
+
+    public NameIndex() {
+        this(ParallelScan.sequential());
+    }
+
+    /**
+     * @param scan runs the scans of queries too short for the trigram postings
+     */
+    public NameIndex(ParallelScan scan) {
+        this.scan = scan;
+    }
+
+    public void put(UUID id, String name) {
+        String normalized = normalize(name);
+        String previous = normalizedNames.put(id, normalized);
+        if (normalized.equals(previous)) {
+            return;
+        }
+        sortedNames.add(new SortedName(normalized, id));
+        if (previous != null) {
+            sortedNames.remove(new SortedName(previous, id));
+        }
+        Set<String> grams = trigrams(normalized);
+        if (previous != null) {
+            for (String gram : trigrams(previous)) {
+                if (!grams.contains(gram)) {
+                    unlink(gram, id);
+                }
+            }
+        }
+        for (String gram : grams) {
+            postings.compute(gram, (key, ids) -> {
+                Set<UUID> target = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                target.add(id);
+                return target;
+            });
+        }
+    }
+
+    public void remove(UUID id) {
+        String previous = normalizedNames.remove(id);
+        if (previous != null) {
+            sortedNames.remove(new SortedName(previous, id));
+            trigrams(previous).forEach(gram -> unlink(gram, id));
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} ids whose name starts with {@code prefix}, ignoring case, ordered
+     * by name and then id. Served from the sorted set in O(log n + limit).
+     */
+    public List<UUID> complete(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        List<UUID> ids = new ArrayList<>(Math.min(limit, 64));
+        for (SortedName entry : sortedNames.tailSet(new SortedName(normalized, SortedName.FIRST_ID), true)) {
+            if (ids.size() == limit || !entry.name().startsWith(normalized)) {
+                break;
+            }
+            ids.add(entry.id());
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the ids whose name contains {@code query}, ignoring case. The result is unordered.
+     */
+    public List<UUID> search(String query) {
+        String normalized = normalize(query);
+        if (normalized.length() < GRAM) {
+            return scan(normalized);
+        }
+
+        Set<UUID> candidates = null;
+        for (String gram : trigrams(normalized)) {
+            Set<UUID> ids = postings.get(gram);
+            if (ids == null) {
+                return List.of();
+            }
+            if (candidates == null || ids.size() < candidates.size()) {
+                candidates = ids;
+            }
+        }
+
+        List<UUID> matches = new ArrayList<>();
+        for (UUID id : candidates) {
+            String name = normalizedNames.get(id);
+            if (name != null && name.contains(normalized)) {
+                matches.add(id);
+            }
+        }
+        return matches;
+    }
+
+    private List<UUID> scan(String normalized) {
+        return scan.filter(normalizedNames.entrySet().spliterator(), entry -> entry.getValue().contains(normalized))
+                .stream()
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private void unlink(String gram, UUID id) {
+        postings.computeIfPresent(gram, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Entry of the name-ordered set. Ties between equal names are broken by id so that every user
+     * has its own entry.
+     */
+    record SortedName(String name, UUID id) implements Comparable<SortedName> {
+        static final UUID FIRST_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+
+        @Override
+        public int compareTo(SortedName other) {
+            int byName = name.compareTo(other.name);
+            return byName != 0 ? byName : id.compareTo(other.id);
+        }
+    }
+
+    static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    static Set<String> trigrams(String normalized) {
+        if (normalized.length() < GRAM) {
+            return Set.of();
+        }
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,110 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only store for variable-length byte strings in direct buffers. Each string is addressed
+ * by one packed {@code long}: chunk index, offset inside the chunk and length, so a column of
+ * references needs no object per value.
+ */
+final class OffHeapByteHeap {
+    private static final int CHUNK_SIZE = 1 << 24;
+    private static final int LENGTH_BITS = 20;
+    private static final int OFFSET_BITS = 24;
+    static final int MAX_LENGTH = (1 << LENGTH_BITS) - 1;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private int position = CHUNK_SIZE;
+
+    long append(byte[] bytes) {
+        if (bytes.length > MAX_LENGTH) {
+            throw new IllegalArgumentException("The value is too long to store.");
+        }
+        if (position + bytes.length > CHUNK_SIZE) {
+            chunks.add(ByteBuffer.allocateDirect(CHUNK_SIZE));
+            position = 0;
+        }
+        int chunk = chunks.size() - 1;
+        chunks.get(chunk).put(position, bytes);
+        long ref = ((long) chunk << (OFFSET_BITS + LENGTH_BITS)) | ((long) position << LENGTH_BITS) | bytes.length;
+        position += bytes.length;
+        return ref;
+    }
+
+    byte[] read(long ref) {
+        byte[] bytes = new byte[length(ref)];
+        chunk(ref).get(offset(ref), bytes);
+        return bytes;
+    }
+
+    boolean equalTo(long ref, byte[] bytes) {
+        if (length(ref) != bytes.length) {
+            return false;
+        }
+        ByteBuffer chunk = chunk(ref);
+        int offset = offset(ref);
+        for (int i = 0; i < bytes.length; i++) {
+            if (chunk.get(offset + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean startsWith(long ref, byte[] prefix) {
+        if (length(ref) < prefix.length) {
+            return false;
+        }
+        ByteBuffer chunk = chunk(ref);
+        int offset = offset(ref);
+        for (int i = 0; i < prefix.length; i++) {
+            if (chunk.get(offset + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Naive substring search, adequate for the short strings stored here. The needle must be
+     * non-empty.
+     */
+    boolean contains(long ref, byte[] needle) {
+        int length = length(ref);
+        ByteBuffer chunk = chunk(ref);
+        int offset = offset(ref);
+        int last = length - needle.length;
+        byte first = needle[0];
+        for (int start = 0; start <= last; start++) {
+            if (chunk.get(offset + start) != first) {
+                continue;
+            }
+            int i = 1;
+            while (i < needle.length && chunk.get(offset + start + i) == needle[i]) {
+                i++;
+            }
+            if (i == needle.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    long allocatedBytes() {
+        return (long) chunks.size() * CHUNK_SIZE;
+    }
+
+    private ByteBuffer chunk(long ref) {
+        return chunks.get((int) (ref >>> (OFFSET_BITS + LENGTH_BITS)));
+    }
+
+    private static int offset(long ref) {
+        return (int) (ref >>> LENGTH_BITS) & ((1 << OFFSET_BITS) - 1);
+    }
+
+    private static int length(long ref) {
+        return (int) ref & MAX_LENGTH;
+    }
+}
@@ -0,0 +1,33 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Growable column of longs kept in direct buffers outside the Java heap. Storage is allocated in
+ * fixed-size chunks, so growing never copies existing values.
+ */
+final class OffHeapLongColumn {
+    private static final int CHUNK_SHIFT = 20;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+
+    long get(int index) {
+        return chunks.get(index >>> CHUNK_SHIFT).getLong((index & CHUNK_MASK) * Long.BYTES);
+    }
+
+    void set(int index, long value) {
+        int chunk = index >>> CHUNK_SHIFT;
+        while (chunks.size() <= chunk) {
+            chunks.add(ByteBuffer.allocateDirect(CHUNK_SIZE * Long.BYTES));
+        }
+        chunks.get(chunk).putLong((index & CHUNK_MASK) * Long.BYTES, value);
+    }
+
+    long allocatedBytes() {
+        return (long) chunks.size() * CHUNK_SIZE * Long.BYTES;
+    }
+}
@@ -0,0 +1,544 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.dto.Revision;
+import cat.itacademy.s04.t01.userapi.dto.UserPage;
+import cat.itacademy.s04.t01.userapi.dto.VersionedUser;
+import cat.itacademy.s04.t01.userapi.entities.User;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Columnar store that keeps user records outside the Java heap, for datasets too large to hold
+ * as objects. Row {@code i} is the {@code i}-th user created: its id is split over two long
+ * columns and name, email, normalized email and lower-cased name are bytes in an
+ * {@link OffHeapByteHeap} referenced from long columns. The id and email indexes are open-addressing
+ * {@code int[]} tables of row numbers, so the heap holds a handful of arrays regardless of size and
+ * {@link User} objects only exist for the records a call returns.
+ *
+ * <p>Writes take an exclusive lock and reads a shared one; a name search holds it while its row
+ * scan runs on the {@link ParallelScan} pool. Replacing a user rewrites its row; the bytes of the
+ * old values stay in the heap until {@link #deleteAll()}.
+ */
+public class OffHeapUserRepository implements UserRepository {
+    private static final int EMPTY = 0;
+    private static final int TOMBSTONE = -1;
+    private static final int STREAM_BATCH = 256;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ParallelScan scan;
+    private final long epoch = ThreadLocalRandom.current().nextLong();
+    private long writes;
+
+    private OffHeapLongColumn idMostBits;
+    private OffHeapLongColumn idLeastBits;
+    private OffHeapLongColumn names;
+    private OffHeapLongColumn emails;
+    private OffHeapLongColumn emailKeys;
+    private OffHeapLongColumn searchNames;
+    private OffHeapLongColumn versions;
+    private OffHeapByteHeap strings;
+    private int size;
+    private long generation;
+
+    private int[] idSlots;
+    private int[] emailSlots;
+    private int[] emailHashes;
+    private int emailSlotsUsed;
+
+    public OffHeapUserRepository() {
+        this(ParallelScan.sequential());
+    }
+
+    /**
+     * @param scan runs the row scans behind name searches
+     */
+    public OffHeapUserRepository(ParallelScan scan) {
+        this.scan = scan;
+        reset();
+    }
+
+    @Override
+    public User save(User user) {
+        User stored = InMemoryUserRepository.storable(user);
+        lock.writeLock().lock();
+        try {
+            write(stored, false);
+            return stored;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<User> insertIfEmailAbsent(User user) {
+        User stored = InMemoryUserRepository.storable(user);
+        lock.writeLock().lock();
+        try {
+            return write(stored, true) ? Optional.of(stored) : Optional.empty();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts the whole batch under a single acquisition of the write lock.
+     */
+    @Override
+    public List<Optional<User>> saveAll(List<User> users) {
+        List<Optional<User>> results = new ArrayList<>(users.size());
+        lock.writeLock().lock();
+        try {
+            for (User user : users) {
+                User stored = InMemoryUserRepository.storable(user);
+                results.add(write(stored, true) ? Optional.of(stored) : Optional.empty());
+            }
+            return results;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<User> findAll() {
+        lock.readLock().lock();
+        try {
+            List<User> users = new ArrayList<>(size);
+            for (int row = 0; row < size; row++) {
+                users.add(materialize(row));
+            }
+            return users;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<User> findById(UUID id) {
+        if (id == null) {
+            throw new IllegalArgumentException("The id cannot be null");
+        }
+        lock.readLock().lock();
+        try {
+            int row = findRow(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            return row < 0 ? Optional.empty() : Optional.of(materialize(row));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<VersionedUser> findVersionedById(UUID id) {
+        if (id == null) {
+            throw new IllegalArgumentException("The id cannot be null");
+        }
+        lock.readLock().lock();
+        try {
+            int row = findRow(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            return row < 0 ? Optional.empty()
+                    : Optional.of(new VersionedUser(materialize(row), new Revision(epoch, versions.get(row))));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Takes the read lock once for the whole batch rather than once per id.
+     */
+    @Override
+    public List<User> findAllById(Collection<UUID> ids) {
+        List<User> users = new ArrayList<>(ids.size());
+        lock.readLock().lock();
+        try {
+            for (UUID id : ids) {
+                if (id == null) {
+                    throw new IllegalArgumentException("The id cannot be null");
+                }
+                int row = findRow(id.getMostSignificantBits(), id.getLeastSignificantBits());
+                if (row >= 0) {
+                    users.add(materialize(row));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return users;
+    }
+
+    @Override
+    public List<User> searchByName(String name) {
+        if (name == null || name.isBlank()) {
+            return findAll();
+        }
+        byte[] needle = NameIndex.normalize(name).getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            int[] rows = scan.filterRange(size, row -> strings.contains(searchNames.get(row), needle));
+            List<User> users = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                users.add(materialize(row));
+            }
+            return users;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        if (email == null) {
+            throw new IllegalArgumentException("The email is invalid.");
+        }
+        byte[] key = InMemoryUserRepository.normalizeEmail(email).getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            return findEmailSlot(key, hash(key)) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keeps no sorted index, which would put every name back on the Java heap: the rows are scanned
+     * and the first {@code limit} matches in name order are kept in a bounded heap, so only the
+     * returned rows are materialized.
+     */
+    @Override
+    public List<User> findByNamePrefix(String prefix, int limit) {
+        String normalized = NameIndex.normalize(prefix);
+        byte[] needle = normalized.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            int[] rows = scan.filterRange(size, row -> strings.startsWith(searchNames.get(row), needle));
+            PriorityQueue<RankedRow> best = new PriorityQueue<>(RankedRow.ORDER.reversed());
+            for (int row : rows) {
+                best.add(new RankedRow(new String(strings.read(searchNames.get(row)), StandardCharsets.UTF_8),
+                        new UUID(idMostBits.get(row), idLeastBits.get(row)), row));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            List<RankedRow> ranked = new ArrayList<>(best);
+            ranked.sort(RankedRow.ORDER);
+            List<User> users = new ArrayList<>(ranked.size());
+            for (RankedRow candidate : ranked) {
+                users.add(materialize(candidate.row()));
+            }
+            return users;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The cursor is the number of the last row returned, so continuing a listing is a direct seek.
+     */
+    @Override
+    public UserPage findPage(String name, Long cursor, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("The limit must be positive.");
+        }
+        byte[] needle = name == null || name.isBlank() ? null : NameIndex.normalize(name).getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            List<User> users = new ArrayList<>(limit);
+            int row = cursor == null ? 0 : (int) Math.max(0, Math.min(cursor, size));
+            for (; row < size && users.size() < limit; row++) {
+                if (needle == null || strings.contains(searchNames.get(row), needle)) {
+                    users.add(materialize(row));
+                }
+            }
+            boolean more = false;
+            for (int next = row; next < size && !more; next++) {
+                more = needle == null || strings.contains(searchNames.get(next), needle);
+            }
+            return new UserPage(users, more ? (long) row : null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads rows in small batches, each under a short read lock, so a long stream never blocks
+     * writers. Rows appended while streaming are included; a {@link #deleteAll()} ends the stream.
+     */
+    @Override
+    public Stream<User> streamAll() {
+        Iterator<User> iterator = new Iterator<>() {
+            private final Deque<User> batch = new ArrayDeque<>(STREAM_BATCH);
+            private final long startedGeneration = currentGeneration();
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                if (batch.isEmpty()) {
+                    fill();
+                }
+                return !batch.isEmpty();
+            }
+
+            @Override
+            public User next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return batch.poll();
+            }
+
+            private void fill() {
+                lock.readLock().lock();
+                try {
+                    if (generation != startedGeneration) {
+                        return;
+                    }
+                    int end = Math.min(size, next + STREAM_BATCH);
+                    for (; next < end; next++) {
+                        batch.add(materialize(next));
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public void deleteAll() {
+        lock.writeLock().lock();
+        try {
+            reset();
+            writes++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Revision revision() {
+        lock.readLock().lock();
+        try {
+            return new Revision(epoch, writes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return strings.allocatedBytes() + idMostBits.allocatedBytes() + idLeastBits.allocatedBytes()
+                    + names.allocatedBytes() + emails.allocatedBytes() + emailKeys.allocatedBytes()
+                    + searchNames.allocatedBytes() + versions.allocatedBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stores the user under the write lock. With {@code insert}, nothing is written when the email
+     * is owned or the id is taken; otherwise the user with the same id is replaced, but an email
+     * owned by another user is refused.
+     *
+     * @return whether the user was written
+     */
+    private boolean write(User user, boolean insert) {
+        long most = user.getId().getMostSignificantBits();
+        long least = user.getId().getLeastSignificantBits();
+        byte[] emailKey = InMemoryUserRepository.normalizeEmail(user.getEmail()).getBytes(StandardCharsets.UTF_8);
+        int emailHash = hash(emailKey);
+
+        int owner = findEmailSlot(emailKey, emailHash);
+        int row = findRow(most, least);
+        if (insert && (owner >= 0 || row >= 0)) {
+            return false;
+        }
+        if (owner >= 0 && emailSlots[owner] != row + 1) {
+            throw new IllegalArgumentException("Email already registered: " + user.getEmail());
+        }
+
+        if (row < 0) {
+            row = size++;
+            idMostBits.set(row, most);
+            idLeastBits.set(row, least);
+            insertId(row);
+        } else if (!strings.equalTo(emailKeys.get(row), emailKey)) {
+            removeEmail(row);
+        }
+
+        names.set(row, strings.append(user.getName().getBytes(StandardCharsets.UTF_8)));
+        emails.set(row, strings.append(user.getEmail().getBytes(StandardCharsets.UTF_8)));
+        emailKeys.set(row, strings.append(emailKey));
+        searchNames.set(row, strings.append(NameIndex.normalize(user.getName()).getBytes(StandardCharsets.UTF_8)));
+        versions.set(row, ++writes);
+        putEmail(emailKey, emailHash, row);
+        return true;
+    }
+
+    private User materialize(int row) {
+        UUID id = new UUID(idMostBits.get(row), idLeastBits.get(row));
+        return new User(id,
+                new String(strings.read(names.get(row)), StandardCharsets.UTF_8),
+                new String(strings.read(emails.get(row)), StandardCharsets.UTF_8));
+    }
+
+    private int findRow(long most, long least) {
+        int mask = idSlots.length - 1;
+        for (int slot = hash(most, least) & mask; ; slot = (slot + 1) & mask) {
+            int entry = idSlots[slot];
+            if (entry == EMPTY) {
+                return -1;
+            }
+            int row = entry - 1;
+            if (idMostBits.get(row) == most && idLeastBits.get(row) == least) {
+                return row;
+            }
+        }
+    }
+
+    private void insertId(int row) {
+        if ((size * 2) > idSlots.length) {
+            int[] previous = idSlots;
+            idSlots = new int[previous.length * 2];
+            for (int entry : previous) {
+                if (entry != EMPTY) {
+                    placeId(entry - 1);
+                }
+            }
+        }
+        placeId(row);
+    }
+
+    private void placeId(int row) {
+        int mask = idSlots.length - 1;
+        int slot = hash(idMostBits.get(row), idLeastBits.get(row)) & mask;
+        while (idSlots[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        idSlots[slot] = row + 1;
+    }
+
+    private int findEmailSlot(byte[] key, int hash) {
+        int mask = emailSlots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = emailSlots[slot];
+            if (entry == EMPTY) {
+                return -1;
+            }
+            if (entry != TOMBSTONE && emailHashes[slot] == hash && strings.equalTo(emailKeys.get(entry - 1), key)) {
+                return slot;
+            }
+        }
+    }
+
+    private void putEmail(byte[] key, int hash, int row) {
+        int existing = findEmailSlot(key, hash);
+        if (existing >= 0) {
+            emailSlots[existing] = row + 1;
+            return;
+        }
+        if ((emailSlotsUsed + 1) * 2 > emailSlots.length) {
+            rehashEmails();
+        }
+        int mask = emailSlots.length - 1;
+        int slot = hash & mask;
+        while (emailSlots[slot] != EMPTY && emailSlots[slot] != TOMBSTONE) {
+            slot = (slot + 1) & mask;
+        }
+        if (emailSlots[slot] == EMPTY) {
+            emailSlotsUsed++;
+        }
+        emailSlots[slot] = row + 1;
+        emailHashes[slot] = hash;
+    }
+
+    private void removeEmail(int row) {
+        byte[] key = strings.read(emailKeys.get(row));
+        int slot = findEmailSlot(key, hash(key));
+        if (slot >= 0 && emailSlots[slot] == row + 1) {
+            emailSlots[slot] = TOMBSTONE;
+        }
+    }
+
+    private void rehashEmails() {
+        int[] previousSlots = emailSlots;
+        int[] previousHashes = emailHashes;
+        int live = 0;
+        for (int entry : previousSlots) {
+            if (entry != EMPTY && entry != TOMBSTONE) {
+                live++;
+            }
+        }
+        int capacity = previousSlots.length;
+        while ((live + 1) * 2 > capacity / 2) {
+            capacity *= 2;
+        }
+        emailSlots = new int[capacity];
+        emailHashes = new int[capacity];
+        emailSlotsUsed = live;
+        int mask = capacity - 1;
+        for (int i = 0; i < previousSlots.length; i++) {
+            int entry = previousSlots[i];
+            if (entry == EMPTY || entry == TOMBSTONE) {
+                continue;
+            }
+            int slot = previousHashes[i] & mask;
+            while (emailSlots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            emailSlots[slot] = entry;
+            emailHashes[slot] = previousHashes[i];
+        }
+    }
+
+    private long currentGeneration() {
+        lock.readLock().lock();
+        try {
+            return generation;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void reset() {
+        idMostBits = new OffHeapLongColumn();
+        idLeastBits = new OffHeapLongColumn();
+        names = new OffHeapLongColumn();
+        emails = new OffHeapLongColumn();
+        emailKeys = new OffHeapLongColumn();
+        searchNames = new OffHeapLongColumn();
+        versions = new OffHeapLongColumn();
+        strings = new OffHeapByteHeap();
+        size = 0;
+        generation++;
+        idSlots = new int[1024];
+        emailSlots = new int[1024];
+        emailHashes = new int[1024];
+        emailSlotsUsed = 0;
+    }
+
+    private record RankedRow(String name, UUID id, int row) {
+        static final Comparator<RankedRow> ORDER = Comparator.comparing(RankedRow::name).thenComparing(RankedRow::id);
+    }
+
+    private static int hash(long most, long least) {
+        return mix(most ^ (least * 0x9E3779B97F4A7C15L));
+    }
+
+    private static int hash(byte[] bytes) {
+        return mix(Arrays.hashCode(bytes));
+    }
+
+    private static int mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return (int) value;
+    }
+}
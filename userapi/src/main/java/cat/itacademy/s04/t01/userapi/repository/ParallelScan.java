@@ -0,0 +1,189 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Filters large sources on a dedicated {@link ForkJoinPool}, leaving the common pool and the
+ * request threads alone. A source is split recursively while a part is larger than
+ * {@code threshold} elements; smaller sources are scanned on the calling thread, where forking
+ * would cost more than it saves. Results keep the encounter order of ordered sources. The same
+ * pool runs the per-partition queries of a partitioned store.
+ */
+public final class ParallelScan implements Closeable {
+    private static final ParallelScan SEQUENTIAL = new ParallelScan(null, Integer.MAX_VALUE);
+
+    private final ForkJoinPool pool;
+    private final long threshold;
+
+    private ParallelScan(ForkJoinPool pool, long threshold) {
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * A scan that always runs on the calling thread.
+     */
+    public static ParallelScan sequential() {
+        return SEQUENTIAL;
+    }
+
+    public static ParallelScan withParallelism(int parallelism, long threshold) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be positive.");
+        }
+        if (threshold < 1) {
+            throw new IllegalArgumentException("The threshold must be positive.");
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism, target -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(target);
+            thread.setName("user-search-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        return new ParallelScan(pool, threshold);
+    }
+
+    public <T> List<T> filter(Spliterator<T> source, Predicate<? super T> predicate) {
+        if (pool == null || source.estimateSize() <= threshold) {
+            return scan(source, predicate);
+        }
+        return pool.invoke(new FilterTask<>(source, predicate, threshold));
+    }
+
+    /**
+     * Primitive form of {@link #filter(Spliterator, Predicate)} over the indexes {@code [0, size)},
+     * for row scans that should not box every index.
+     *
+     * @return the matching indexes in ascending order
+     */
+    public int[] filterRange(int size, IntPredicate predicate) {
+        if (pool == null || size <= threshold) {
+            return scanRange(0, size, predicate);
+        }
+        return pool.invoke(new RangeTask(0, size, predicate, threshold));
+    }
+
+    /**
+     * Applies {@code query} to every source, all but the last on the pool and the last on the
+     * calling thread, and returns the results in source order. Without a pool the sources are
+     * queried one after the other on the calling thread.
+     */
+    public <S, R> List<R> map(S[] sources, Function<? super S, ? extends R> query) {
+        List<R> results = new ArrayList<>(sources.length);
+        if (pool == null || sources.length < 2) {
+            for (S source : sources) {
+                results.add(query.apply(source));
+            }
+            return results;
+        }
+        List<ForkJoinTask<? extends R>> forked = new ArrayList<>(sources.length - 1);
+        for (int i = 0; i < sources.length - 1; i++) {
+            S source = sources[i];
+            forked.add(pool.submit(() -> query.apply(source)));
+        }
+        R last = query.apply(sources[sources.length - 1]);
+        for (ForkJoinTask<? extends R> task : forked) {
+            results.add(task.join());
+        }
+        results.add(last);
+        return results;
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private static <T> List<T> scan(Spliterator<T> source, Predicate<? super T> predicate) {
+        List<T> matches = new ArrayList<>();
+        source.forEachRemaining(element -> {
+            if (predicate.test(element)) {
+                matches.add(element);
+            }
+        });
+        return matches;
+    }
+
+    private static int[] scanRange(int from, int to, IntPredicate predicate) {
+        int[] matches = new int[16];
+        int count = 0;
+        for (int index = from; index < to; index++) {
+            if (predicate.test(index)) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = index;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private static final class RangeTask extends RecursiveTask<int[]> {
+        private final int from;
+        private final int to;
+        private final IntPredicate predicate;
+        private final long threshold;
+
+        private RangeTask(int from, int to, IntPredicate predicate, long threshold) {
+            this.from = from;
+            this.to = to;
+            this.predicate = predicate;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= threshold) {
+                return scanRange(from, to, predicate);
+            }
+            int middle = (from + to) >>> 1;
+            RangeTask left = new RangeTask(from, middle, predicate, threshold);
+            left.fork();
+            int[] right = new RangeTask(middle, to, predicate, threshold).compute();
+            int[] prefix = left.join();
+            int[] matches = Arrays.copyOf(prefix, prefix.length + right.length);
+            System.arraycopy(right, 0, matches, prefix.length, right.length);
+            return matches;
+        }
+    }
+
+    private static final class FilterTask<T> extends RecursiveTask<List<T>> {
+        private final Spliterator<T> source;
+        private final Predicate<? super T> predicate;
+        private final long threshold;
+
+        private FilterTask(Spliterator<T> source, Predicate<? super T> predicate, long threshold) {
+            this.source = source;
+            this.predicate = predicate;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected List<T> compute() {
+            if (source.estimateSize() > threshold) {
+                Spliterator<T> prefix = source.trySplit();
+                if (prefix != null) {
+                    FilterTask<T> left = new FilterTask<>(prefix, predicate, threshold);
+                    left.fork();
+                    List<T> right = new FilterTask<>(source, predicate, threshold).compute();
+                    List<T> matches = left.join();
+                    matches.addAll(right);
+                    return matches;
+                }
+            }
+            return scan(source, predicate);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Encodes each user into the {@link UserJsonCache} as it is saved, so the first read of a new or
+ * changed user already finds its JSON.
+ */
+public class PreEncodingUserRepository extends DelegatingUserRepository {
+    private final UserJsonCache cache;
+
+    public PreEncodingUserRepository(UserRepository delegate, UserJsonCache cache) {
+        super(delegate);
+        this.cache = cache;
+    }
+
+    @Override
+    public User save(User user) {
+        User saved = delegate.save(user);
+        cache.put(saved);
+        return saved;
+    }
+
+    @Override
+    public Optional<User> insertIfEmailAbsent(User user) {
+        Optional<User> inserted = delegate.insertIfEmailAbsent(user);
+        inserted.ifPresent(cache::put);
+        return inserted;
+    }
+
+    @Override
+    public List<Optional<User>> saveAll(List<User> users) {
+        List<Optional<User>> results = delegate.saveAll(users);
+        results.forEach(result -> result.ifPresent(cache::put));
+        return results;
+    }
+
+    @Override
+    public void deleteAll() {
+        delegate.deleteAll();
+        cache.clear();
+    }
+}
@@ -0,0 +1,36 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.dto.UserPage;
+import cat.itacademy.s04.t01.userapi.entities.User;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Non-blocking view of the user store. Listings are {@link Flux} sources that emit users as the
+ * subscriber requests them instead of building the whole result first.
+ */
+public interface ReactiveUserRepository {
+
+    /**
+     * Stores the user unless its email is already registered, in which case the result is empty.
+     */
+    Mono<User> insertIfEmailAbsent(User user);
+
+    Mono<User> findById(UUID id);
+
+    /**
+     * Emits every user in creation order, reading the store lazily as demand arrives.
+     */
+    Flux<User> findAll();
+
+    Flux<User> searchByName(String name);
+
+    /**
+     * One page of {@link UserRepository#findPage(String, Long, int)}.
+     */
+    Mono<UserPage> findPage(String name, Long cursor, int limit);
+
+    Mono<Boolean> existsByEmail(String email);
+}
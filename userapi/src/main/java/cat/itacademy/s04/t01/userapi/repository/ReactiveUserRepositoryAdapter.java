@@ -0,0 +1,66 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.dto.UserPage;
+import cat.itacademy.s04.t01.userapi.entities.User;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.UUID;
+
+/**
+ * Exposes a blocking {@link UserRepository} as a {@link ReactiveUserRepository}. Every call runs on
+ * the given scheduler, so a store that blocks, such as the write-ahead log waiting for a disk
+ * sync, never stalls the thread that subscribed.
+ */
+public class ReactiveUserRepositoryAdapter implements ReactiveUserRepository {
+    private final UserRepository delegate;
+    private final Scheduler scheduler;
+
+    public ReactiveUserRepositoryAdapter(UserRepository delegate, Scheduler scheduler) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Mono<User> insertIfEmailAbsent(User user) {
+        return Mono.fromCallable(() -> delegate.insertIfEmailAbsent(user))
+                .flatMap(Mono::justOrEmpty)
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Mono<User> findById(UUID id) {
+        return Mono.fromCallable(() -> delegate.findById(id))
+                .flatMap(Mono::justOrEmpty)
+                .subscribeOn(scheduler);
+    }
+
+    /**
+     * Backed by {@link UserRepository#streamAll()}, which is pulled one element per request and
+     * closed when the subscriber completes or cancels.
+     */
+    @Override
+    public Flux<User> findAll() {
+        return Flux.fromStream(delegate::streamAll)
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Flux<User> searchByName(String name) {
+        return Flux.defer(() -> Flux.fromIterable(delegate.searchByName(name)))
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Mono<UserPage> findPage(String name, Long cursor, int limit) {
+        return Mono.fromCallable(() -> delegate.findPage(name, cursor, limit))
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Mono<Boolean> existsByEmail(String email) {
+        return Mono.fromCallable(() -> delegate.existsByEmail(email))
+                .subscribeOn(scheduler);
+    }
+}
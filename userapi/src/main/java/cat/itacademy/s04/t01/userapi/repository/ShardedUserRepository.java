@@ -0,0 +1,314 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.dto.Revision;
+import cat.itacademy.s04.t01.userapi.dto.UserPage;
+import cat.itacademy.s04.t01.userapi.dto.VersionedUser;
+import cat.itacademy.s04.t01.userapi.entities.User;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * In-memory store split into independent {@link InMemoryUserRepository} partitions so concurrent
+ * writers rarely touch the same structures. A user lives in the shard chosen by the hash of its id,
+ * while the claim on its email lives in the partition chosen by the hash of the normalized email,
+ * so a duplicate check and the record it guards may sit in different partitions.
+ *
+ * <p>Each shard keeps its own version and revision counters. Only inserts take a number from the
+ * sequence the shards share, which keeps the creation order global: listings query all shards on
+ * the {@link ParallelScan} pool and merge their already ordered results, and one cursor pages
+ * through all of them.
+ */
+public class ShardedUserRepository implements UserRepository {
+    private final InMemoryUserRepository[] shards;
+    private final List<Map<String, UUID>> emailClaims;
+    private final ParallelScan scan;
+    private final StripedLocks stripes = new StripedLocks();
+    private final long epoch = ThreadLocalRandom.current().nextLong();
+
+    public ShardedUserRepository(int shardCount) {
+        this(shardCount, ParallelScan.sequential());
+    }
+
+    public ShardedUserRepository(int shardCount, ParallelScan scan) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("The shard count must be positive.");
+        }
+        this.scan = scan;
+        AtomicLong sequence = new AtomicLong();
+        shards = new InMemoryUserRepository[shardCount];
+        emailClaims = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new InMemoryUserRepository(scan, sequence);
+            emailClaims.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Replacing a user may release the claim on its previous email, so writes to one id are
+     * serialized by a lock striped by id.
+     */
+    @Override
+    public User save(User user) {
+        User stored = InMemoryUserRepository.storable(user);
+        String email = InMemoryUserRepository.normalizeEmail(stored.getEmail());
+        ReentrantLock stripe = stripes.stripeFor(stored.getId());
+        stripe.lock();
+        try {
+            UUID owner = claimsFor(email).putIfAbsent(email, stored.getId());
+            if (owner != null && !owner.equals(stored.getId())) {
+                throw new IllegalArgumentException("Email already registered: " + stored.getEmail());
+            }
+            InMemoryUserRepository shard = shardFor(stored.getId());
+            Optional<String> previous = shard.findById(stored.getId())
+                    .map(current -> InMemoryUserRepository.normalizeEmail(current.getEmail()));
+            shard.save(stored);
+            previous.filter(previousEmail -> !previousEmail.equals(email))
+                    .ifPresent(previousEmail -> claimsFor(previousEmail).remove(previousEmail, stored.getId()));
+            return stored;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    @Override
+    public Optional<User> insertIfEmailAbsent(User user) {
+        User stored = InMemoryUserRepository.storable(user);
+        String email = InMemoryUserRepository.normalizeEmail(stored.getEmail());
+        if (claimsFor(email).putIfAbsent(email, stored.getId()) != null) {
+            return Optional.empty();
+        }
+        Optional<User> inserted = shardFor(stored.getId()).insertIfEmailAbsent(stored);
+        if (inserted.isEmpty()) {
+            claimsFor(email).remove(email, stored.getId());
+        }
+        return inserted;
+    }
+
+    @Override
+    public List<Optional<User>> saveAll(List<User> users) {
+        List<Optional<User>> results = new ArrayList<>(users.size());
+        for (User user : users) {
+            results.add(insertIfEmailAbsent(user));
+        }
+        return results;
+    }
+
+    @Override
+    public List<User> findAll() {
+        return mergeToList(fanOut(shard -> List.copyOf(shard.timelineAfter(0))));
+    }
+
+    @Override
+    public Optional<User> findById(UUID id) {
+        if (id == null) {
+            throw new IllegalArgumentException("The id cannot be null");
+        }
+        return shardFor(id).findById(id);
+    }
+
+    @Override
+    public Optional<VersionedUser> findVersionedById(UUID id) {
+        if (id == null) {
+            throw new IllegalArgumentException("The id cannot be null");
+        }
+        return shardFor(id).findVersionedById(id);
+    }
+
+    @Override
+    public List<User> findAllById(Collection<UUID> ids) {
+        List<User> users = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            if (id == null) {
+                throw new IllegalArgumentException("The id cannot be null");
+            }
+            shardFor(id).findById(id).ifPresent(users::add);
+        }
+        return users;
+    }
+
+    @Override
+    public List<User> searchByName(String name) {
+        if (name == null || name.isBlank()) {
+            return findAll();
+        }
+        return mergeToList(fanOut(shard -> shard.search(name, 0)));
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        if (email == null) {
+            throw new IllegalArgumentException("The email is invalid.");
+        }
+        String normalized = InMemoryUserRepository.normalizeEmail(email);
+        return claimsFor(normalized).containsKey(normalized);
+    }
+
+    /**
+     * Every shard returns its own first {@code limit} matches in name order; the global first
+     * {@code limit} are among them.
+     */
+    @Override
+    public List<User> findByNamePrefix(String prefix, int limit) {
+        Comparator<User> byName = Comparator.comparing((User user) -> NameIndex.normalize(user.getName()))
+                .thenComparing(User::getId);
+        return fanOut(shard -> shard.findByNamePrefix(prefix, limit)).stream()
+                .flatMap(List::stream)
+                .sorted(byName)
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Each shard contributes at most {@code limit + 1} users after the cursor, which is enough to
+     * fill the page from the merged result and tell whether more remain.
+     */
+    @Override
+    public UserPage findPage(String name, Long cursor, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("The limit must be positive.");
+        }
+        long after = cursor == null ? 0 : cursor;
+        int wanted = limit == Integer.MAX_VALUE ? limit : limit + 1;
+        boolean all = name == null || name.isBlank();
+
+        List<List<CompactUser>> candidates = fanOut(shard -> {
+            if (all) {
+                List<CompactUser> next = new ArrayList<>();
+                Iterator<CompactUser> timeline = shard.timelineAfter(after).iterator();
+                while (timeline.hasNext() && next.size() < wanted) {
+                    next.add(timeline.next());
+                }
+                return next;
+            }
+            List<CompactUser> matches = shard.search(name, after);
+            return matches.size() > wanted ? matches.subList(0, wanted) : matches;
+        });
+
+        List<User> users = new ArrayList<>(limit);
+        Long last = null;
+        boolean more = false;
+        Iterator<CompactUser> merged = merge(candidates.stream().map(List::iterator).toList());
+        while (merged.hasNext()) {
+            CompactUser stored = merged.next();
+            if (users.size() == limit) {
+                more = true;
+                break;
+            }
+            users.add(stored.toUser());
+            last = stored.sequence();
+        }
+        return new UserPage(users, more ? last : null);
+    }
+
+    /**
+     * Lazily merges the shard timelines, so the stream stays in creation order without copying.
+     */
+    @Override
+    public Stream<User> streamAll() {
+        List<Iterator<CompactUser>> sources = new ArrayList<>(shards.length);
+        for (InMemoryUserRepository shard : shards) {
+            sources.add(shard.timelineAfter(0).iterator());
+        }
+        Iterator<CompactUser> merged = merge(sources);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .map(CompactUser::toUser);
+    }
+
+    @Override
+    public void deleteAll() {
+        for (InMemoryUserRepository shard : shards) {
+            for (User removed : shard.removeAll()) {
+                String email = InMemoryUserRepository.normalizeEmail(removed.getEmail());
+                claimsFor(email).remove(email, removed.getId());
+            }
+        }
+    }
+
+    /**
+     * Every shard revision only grows, so their sum moves with each write to any shard.
+     */
+    @Override
+    public Revision revision() {
+        long version = 0;
+        for (InMemoryUserRepository shard : shards) {
+            version += shard.revision().version();
+        }
+        return new Revision(epoch, version);
+    }
+
+    /**
+     * Queries every shard on the {@link ParallelScan} pool, or one after the other when the scan
+     * is sequential.
+     */
+    private <T> List<T> fanOut(Function<InMemoryUserRepository, T> query) {
+        return scan.map(shards, query);
+    }
+
+    private static List<User> mergeToList(List<List<CompactUser>> sorted) {
+        List<User> users = new ArrayList<>(sorted.stream().mapToInt(List::size).sum());
+        Iterator<CompactUser> merged = merge(sorted.stream().map(List::iterator).toList());
+        while (merged.hasNext()) {
+            users.add(merged.next().toUser());
+        }
+        return users;
+    }
+
+    /**
+     * K-way merge of iterators that are each ordered by sequence.
+     */
+    private static Iterator<CompactUser> merge(List<Iterator<CompactUser>> sources) {
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                Comparator.comparingLong(head -> head.current.sequence()));
+        for (Iterator<CompactUser> source : sources) {
+            if (source.hasNext()) {
+                heads.add(new Head(source.next(), source));
+            }
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public CompactUser next() {
+                Head head = heads.poll();
+                if (head == null) {
+                    throw new NoSuchElementException();
+                }
+                CompactUser value = head.current;
+                if (head.rest.hasNext()) {
+                    heads.add(new Head(head.rest.next(), head.rest));
+                }
+                return value;
+            }
+        };
+    }
+
+    private InMemoryUserRepository shardFor(UUID id) {
+        return shards[Math.floorMod(spread(id.hashCode()), shards.length)];
+    }
+
+    private Map<String, UUID> claimsFor(String normalizedEmail) {
+        return emailClaims.get(Math.floorMod(spread(normalizedEmail.hashCode()), emailClaims.size()));
+    }
+
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private record Head(CompactUser current, Iterator<CompactUser> rest) {
+    }
+}
@@ -0,0 +1,47 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import java.util.BitSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks picked by key hash, for write paths that apply a write and record it
+ * somewhere else as one step. Several stripes are always taken in ascending order, so writers
+ * holding overlapping sets cannot deadlock.
+ */
+public final class StripedLocks {
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public StripedLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * The stripe guarding {@code key}.
+     */
+    public static int stripeOf(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    public static BitSet all() {
+        BitSet stripes = new BitSet(STRIPES);
+        stripes.set(0, STRIPES);
+        return stripes;
+    }
+
+    public ReentrantLock stripeFor(Object key) {
+        return locks[stripeOf(key)];
+    }
+
+    public void lock(BitSet stripes) {
+        stripes.stream().forEach(stripe -> locks[stripe].lock());
+    }
+
+    public void unlock(BitSet stripes) {
+        stripes.stream().forEach(stripe -> locks[stripe].unlock());
+    }
+}
@@ -0,0 +1,69 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JSON encoding of every stored user, kept next to the store so responses can copy bytes instead
+ * of running Jackson per request. An entry is only served while it was encoded from a user equal
+ * to the one being written out; writes that reach the store without passing through
+ * {@link PreEncodingUserRepository}, such as replicated ones, are re-encoded on first read.
+ */
+public class UserJsonCache {
+    private final Map<UUID, Encoded> entries = new ConcurrentHashMap<>();
+    private final ObjectWriter writer;
+
+    /**
+     * @param writer the writer for {@link User} the regular responses use, so both paths emit the
+     *               same bytes
+     */
+    public UserJsonCache(ObjectWriter writer) {
+        this.writer = writer;
+    }
+
+    public void put(User user) {
+        entries.put(user.getId(), new Encoded(user, encode(user)));
+    }
+
+    /**
+     * Returns the JSON of {@code user}, encoding and remembering it when no current entry exists.
+     * The returned array is shared and must not be modified.
+     */
+    public byte[] json(User user) {
+        if (user.getId() == null) {
+            return encode(user);
+        }
+        Encoded cached = entries.get(user.getId());
+        if (cached != null && cached.user().equals(user)) {
+            return cached.json();
+        }
+        byte[] json = encode(user);
+        entries.put(user.getId(), new Encoded(user, json));
+        return json;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private byte[] encode(User user) {
+        try {
+            return writer.writeValueAsBytes(user);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Encoded(User user, byte[] json) {
+    }
+}
@@ -1,16 +1,79 @@
 package cat.itacademy.s04.t01.userapi.repository;
 
+import cat.itacademy.s04.t01.userapi.dto.Revision;
+import cat.itacademy.s04.t01.userapi.dto.UserPage;
+import cat.itacademy.s04.t01.userapi.dto.VersionedUser;
 import cat.itacademy.s04.t01.userapi.entities.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface UserRepository {
+    /**
+     * Stores the user, replacing the one with the same id.
+     *
+     * @throws IllegalArgumentException when another user owns the email
+     */
     User save(User user);
+
+    /**
+     * Stores the user only if no other user owns the same email and no user has its id, as a
+     * single atomic step. An existing user is never replaced.
+     *
+     * @return the stored user, or empty when the email is already registered or the id is taken
+     */
+    Optional<User> insertIfEmailAbsent(User user);
+
+    /**
+     * Batch form of {@link #insertIfEmailAbsent(User)}: each user is stored unless its email is
+     * already registered or its id taken, including by an earlier element of the same batch.
+     *
+     * @return one entry per input, in order, empty where the email or the id was taken
+     */
+    List<Optional<User>> saveAll(List<User> users);
+
     List<User> findAll();
     Optional<User> findById(UUID id);
+
+    /**
+     * Like {@link #findById(UUID)}, with the revision of the user's last write.
+     */
+    Optional<VersionedUser> findVersionedById(UUID id);
+
+    /**
+     * Resolves a batch of ids in one call. Users come back in the order of {@code ids}; unknown
+     * ids are skipped, so callers find the missing ones by comparing ids.
+     */
+    List<User> findAllById(Collection<UUID> ids);
     List<User> searchByName(String name);
     boolean existsByEmail(String email);
+
+    /**
+     * Returns up to {@code limit} users whose name starts with {@code prefix}, ignoring case,
+     * ordered by name.
+     */
+    List<User> findByNamePrefix(String prefix, int limit);
+
+    /**
+     * Returns up to {@code limit} users created after {@code cursor}, optionally filtered by name.
+     * A {@code null} cursor starts from the first user.
+     */
+    UserPage findPage(String name, Long cursor, int limit);
+
+    /**
+     * Lazily walks every user in creation order without copying the store.
+     */
+    Stream<User> streamAll();
+
+    void deleteAll();
+
+    /**
+     * Revision of the store as a whole. It changes after every completed write, so an unchanged
+     * revision means any listing read after it is still current.
+     */
+    Revision revision();
 }
 
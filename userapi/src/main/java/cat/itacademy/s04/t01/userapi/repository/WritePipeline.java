@@ -0,0 +1,160 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.exceptions.WriteQueueFullException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Funnels user creations through one writer thread. Submitters enqueue onto a lock-free queue and
+ * get a future; the writer drains up to {@code batchSize} pending users at a time and applies them
+ * with a single {@link UserRepository#saveAll(List)}, so a durable store syncs once per batch
+ * instead of once per user.
+ *
+ * <p>The queue is bounded by permits rather than by the queue itself. A submitter that finds no
+ * free slot waits up to {@code offerTimeout} for one, then gets a {@link WriteQueueFullException};
+ * a zero timeout rejects at once.
+ */
+public class WritePipeline implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(WritePipeline.class);
+
+    private final UserRepository store;
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final Semaphore slots;
+    private final int capacity;
+    private final int batchSize;
+    private final long offerTimeoutNanos;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private WritePipeline(UserRepository store, int capacity, int batchSize, Duration offerTimeout) {
+        this.store = store;
+        this.capacity = capacity;
+        this.slots = new Semaphore(capacity);
+        this.batchSize = batchSize;
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.writer = Thread.ofPlatform().name("user-writer").daemon().unstarted(this::drain);
+    }
+
+    /**
+     * Creates the pipeline and starts its writer thread.
+     */
+    public static WritePipeline start(UserRepository store, int capacity, int batchSize, Duration offerTimeout) {
+        if (capacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("The queue capacity and batch size must be positive.");
+        }
+        WritePipeline pipeline = new WritePipeline(store, capacity, batchSize, offerTimeout);
+        pipeline.writer.start();
+        return pipeline;
+    }
+
+    /**
+     * Queues {@code user} for insertion unless its email is taken.
+     *
+     * @return completes with the stored user, or empty when the email was already registered
+     * @throws WriteQueueFullException when no slot frees up within the offer timeout
+     */
+    public CompletableFuture<Optional<User>> submit(User user) {
+        if (user == null) {
+            throw new IllegalArgumentException("The user cannot be null.");
+        }
+        if (closed) {
+            throw new IllegalStateException("The write pipeline is closed.");
+        }
+        acquireSlot();
+        Pending pending = new Pending(user, new CompletableFuture<>());
+        queue.offer(pending);
+        LockSupport.unpark(writer);
+        if (closed && queue.remove(pending)) {
+            // The writer may have stopped before seeing this entry.
+            slots.release();
+            pending.result().completeExceptionally(new IllegalStateException("The write pipeline is closed."));
+        }
+        return pending.result();
+    }
+
+    /**
+     * Users queued and not yet handed to the store.
+     */
+    public int queued() {
+        return capacity - slots.availablePermits();
+    }
+
+    /**
+     * Stops the writer after it has applied everything already queued. An interrupted caller stops
+     * waiting for it and keeps its interrupt status.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acquireSlot() {
+        try {
+            if (!slots.tryAcquire(offerTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new WriteQueueFullException(capacity);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteQueueFullException(capacity);
+        }
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (true) {
+            Pending next;
+            while (batch.size() < batchSize && (next = queue.poll()) != null) {
+                batch.add(next);
+            }
+            if (batch.isEmpty()) {
+                if (closed) {
+                    return;
+                }
+                LockSupport.park(this);
+                continue;
+            }
+            slots.release(batch.size());
+            apply(batch);
+            batch.clear();
+        }
+    }
+
+    private void apply(List<Pending> batch) {
+        List<User> users = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            users.add(pending.user());
+        }
+        try {
+            List<Optional<User>> results = store.saveAll(users);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to apply a batch of {} users", batch.size(), e);
+            for (Pending pending : batch) {
+                pending.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    private record Pending(User user, CompletableFuture<Optional<User>> result) {
+    }
+}
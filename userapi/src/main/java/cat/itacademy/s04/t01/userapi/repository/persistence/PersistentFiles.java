@@ -0,0 +1,31 @@
+package cat.itacademy.s04.t01.userapi.repository.persistence;
+
+import java.nio.file.Path;
+
+/**
+ * Naming of generation-numbered files. Generations are zero-padded so that names sort in order.
+ */
+final class PersistentFiles {
+
+    private PersistentFiles() {
+    }
+
+    static String name(String prefix, long generation, String suffix) {
+        return String.format("%s%020d%s", prefix, generation, suffix);
+    }
+
+    /**
+     * Returns the generation encoded in the file name, or -1 if the name does not match.
+     */
+    static long generation(Path file, String prefix, String suffix) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(prefix) || !name.endsWith(suffix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
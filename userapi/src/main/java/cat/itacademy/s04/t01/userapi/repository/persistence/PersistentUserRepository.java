@@ -0,0 +1,258 @@
+package cat.itacademy.s04.t01.userapi.repository.persistence;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.repository.DelegatingUserRepository;
+import cat.itacademy.s04.t01.userapi.repository.InMemoryUserRepository;
+import cat.itacademy.s04.t01.userapi.repository.StripedLocks;
+import cat.itacademy.s04.t01.userapi.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Makes an in-memory repository durable. Every mutation is checked against the delegate, appended
+ * to a {@link WriteAheadLog}, synced by the group commit covering its record and only then applied
+ * to the delegate, all while holding the locks striped by its user id and email. A write is thus
+ * never visible before it is on disk, a failed append leaves memory untouched, and the log order of
+ * conflicting writes matches the order they hit memory.
+ *
+ * <p>Snapshots rotate the log while holding every stripe and then copy the delegate. Each write
+ * logged before the rotation was applied by then, and any write missing from the copy was appended
+ * after it, so recovery loads the newest snapshot and replays only the segments from its
+ * generation on, rebuilding every index of the delegate through {@code save}.
+ */
+public class PersistentUserRepository extends DelegatingUserRepository implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(PersistentUserRepository.class);
+
+    private final Path directory;
+    private final WriteAheadLog wal;
+    private final StripedLocks stripes = new StripedLocks();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final ScheduledExecutorService scheduler;
+
+    private PersistentUserRepository(UserRepository delegate, Path directory, WriteAheadLog wal, Duration snapshotInterval) {
+        super(delegate);
+        this.directory = directory;
+        this.wal = wal;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = snapshotInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::scheduledSnapshot, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Recovers the content of {@code directory} into {@code delegate}, which must be empty, and
+     * starts logging to a fresh segment.
+     */
+    public static PersistentUserRepository open(UserRepository delegate, Path directory, Duration snapshotInterval) throws IOException {
+        Files.createDirectories(directory);
+
+        long snapshotGeneration = -1;
+        long lastSegment = -1;
+        List<Path> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                snapshotGeneration = Math.max(snapshotGeneration, SnapshotFile.generationOf(file));
+                long segment = WriteAheadLog.generationOf(file);
+                if (segment >= 0) {
+                    segments.add(file);
+                    lastSegment = Math.max(lastSegment, segment);
+                }
+            }
+        }
+
+        long started = System.nanoTime();
+        if (snapshotGeneration >= 0) {
+            SnapshotFile.read(SnapshotFile.path(directory, snapshotGeneration), delegate);
+        }
+        long replayFrom = snapshotGeneration;
+        List<Path> tail = segments.stream()
+                .filter(segment -> WriteAheadLog.generationOf(segment) >= replayFrom)
+                .sorted(Comparator.comparingLong(WriteAheadLog::generationOf))
+                .toList();
+        for (Path segment : tail) {
+            WriteAheadLog.replay(segment, delegate);
+        }
+        log.info("Recovered user store from {} (snapshot generation {}, {} log segments) in {} ms",
+                directory, snapshotGeneration, tail.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        long generation = Math.max(lastSegment, snapshotGeneration) + 1;
+        return new PersistentUserRepository(delegate, directory, WriteAheadLog.open(directory, generation), snapshotInterval);
+    }
+
+    @Override
+    public User save(User user) {
+        User stored = InMemoryUserRepository.storable(user);
+        BitSet locked = stripesOf(List.of(stored));
+        stripes.lock(locked);
+        try {
+            String email = InMemoryUserRepository.normalizeEmail(stored.getEmail());
+            boolean ownEmail = delegate.findById(stored.getId())
+                    .map(current -> InMemoryUserRepository.normalizeEmail(current.getEmail()).equals(email))
+                    .orElse(false);
+            if (!ownEmail && delegate.existsByEmail(stored.getEmail())) {
+                throw new IllegalArgumentException("Email already registered: " + stored.getEmail());
+            }
+            sync(append(stored));
+            delegate.save(stored);
+            return stored;
+        } finally {
+            stripes.unlock(locked);
+        }
+    }
+
+    @Override
+    public Optional<User> insertIfEmailAbsent(User user) {
+        return saveAll(List.of(InMemoryUserRepository.storable(user))).getFirst();
+    }
+
+    /**
+     * Appends every accepted user before waiting for a single sync, then applies them as one batch.
+     */
+    @Override
+    public List<Optional<User>> saveAll(List<User> users) {
+        List<User> stored = new ArrayList<>(users.size());
+        for (User user : users) {
+            stored.add(InMemoryUserRepository.storable(user));
+        }
+        BitSet locked = stripesOf(stored);
+        stripes.lock(locked);
+        try {
+            List<Optional<User>> results = new ArrayList<>(stored.size());
+            List<User> accepted = new ArrayList<>(stored.size());
+            Set<UUID> ids = new HashSet<>();
+            Set<String> emails = new HashSet<>();
+            long position = -1;
+            for (User user : stored) {
+                String email = InMemoryUserRepository.normalizeEmail(user.getEmail());
+                if (ids.contains(user.getId()) || emails.contains(email)
+                        || delegate.findById(user.getId()).isPresent() || delegate.existsByEmail(user.getEmail())) {
+                    results.add(Optional.empty());
+                    continue;
+                }
+                ids.add(user.getId());
+                emails.add(email);
+                position = append(user);
+                accepted.add(user);
+                results.add(Optional.of(user));
+            }
+            if (!accepted.isEmpty()) {
+                sync(position);
+                delegate.saveAll(accepted);
+            }
+            return results;
+        } finally {
+            stripes.unlock(locked);
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        BitSet locked = StripedLocks.all();
+        stripes.lock(locked);
+        try {
+            long position;
+            try {
+                position = wal.appendClear();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            sync(position);
+            delegate.deleteAll();
+        } finally {
+            stripes.unlock(locked);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the current content and drops the files it supersedes.
+     */
+    public void snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            long generation = rotate();
+            try (Stream<User> users = delegate.streamAll()) {
+                SnapshotFile.write(SnapshotFile.path(directory, generation), users);
+            }
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    long snapshot = SnapshotFile.generationOf(file);
+                    long segment = WriteAheadLog.generationOf(file);
+                    if ((snapshot >= 0 && snapshot < generation) || (segment >= 0 && segment < generation)) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        wal.close();
+    }
+
+    private long append(User user) {
+        try {
+            return wal.appendPut(user);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long rotate() throws IOException {
+        BitSet all = StripedLocks.all();
+        stripes.lock(all);
+        try {
+            return wal.rotate();
+        } finally {
+            stripes.unlock(all);
+        }
+    }
+
+    private void sync(long position) {
+        try {
+            wal.sync(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void scheduledSnapshot() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.warn("User snapshot failed", e);
+        }
+    }
+
+    /**
+     * The stripes of the users' ids and normalized emails, so concurrent writers that could claim
+     * the same email are serialized as well.
+     */
+    private static BitSet stripesOf(List<User> users) {
+        BitSet locked = new BitSet();
+        for (User user : users) {
+            locked.set(StripedLocks.stripeOf(user.getId()));
+            locked.set(StripedLocks.stripeOf(InMemoryUserRepository.normalizeEmail(user.getEmail())));
+        }
+        return locked;
+    }
+}
@@ -0,0 +1,63 @@
+package cat.itacademy.s04.t01.userapi.repository.persistence;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.repository.UserRepository;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Compact binary image of the whole store: a header, one flagged record per user in creation
+ * order and an end marker. Files are written under a temporary name and renamed into place once
+ * synced, so a half-written snapshot is never picked up by recovery.
+ */
+final class SnapshotFile {
+    private static final int MAGIC = 0x55534E50;
+    private static final int VERSION = 1;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+
+    private SnapshotFile() {
+    }
+
+    static Path path(Path directory, long generation) {
+        return directory.resolve(PersistentFiles.name(PREFIX, generation, SUFFIX));
+    }
+
+    static long generationOf(Path file) {
+        return PersistentFiles.generation(file, PREFIX, SUFFIX);
+    }
+
+    static void write(Path target, Stream<User> users) throws IOException {
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                out.writeBoolean(true);
+                UserRecordCodec.write(out, iterator.next());
+            }
+            out.writeBoolean(false);
+            out.flush();
+            file.getChannel().force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static void read(Path source, UserRepository target) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a user snapshot: " + source);
+            }
+            while (in.readBoolean()) {
+                target.save(UserRecordCodec.read(in));
+            }
+        }
+    }
+}
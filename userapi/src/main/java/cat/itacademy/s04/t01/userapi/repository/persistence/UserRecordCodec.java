@@ -0,0 +1,43 @@
+package cat.itacademy.s04.t01.userapi.repository.persistence;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Binary layout of a user shared by the write-ahead log, snapshots and replication: the id as two
+ * longs, then name and email as length-prefixed UTF-8.
+ */
+public final class UserRecordCodec {
+
+    private UserRecordCodec() {
+    }
+
+    public static void write(DataOutput out, User user) throws IOException {
+        out.writeLong(user.getId().getMostSignificantBits());
+        out.writeLong(user.getId().getLeastSignificantBits());
+        writeString(out, user.getName());
+        writeString(out, user.getEmail());
+    }
+
+    public static User read(DataInput in) throws IOException {
+        UUID id = new UUID(in.readLong(), in.readLong());
+        return new User(id, readString(in), readString(in));
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
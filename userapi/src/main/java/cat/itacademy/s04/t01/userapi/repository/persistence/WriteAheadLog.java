@@ -0,0 +1,220 @@
+package cat.itacademy.s04.t01.userapi.repository.persistence;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.repository.UserRepository;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of user mutations split into numbered segment files. Each record is framed as
+ * {@code [length][crc32][payload]} so a torn write at the tail is detected and dropped on replay.
+ *
+ * <p>Appends only write to the file channel. Durability comes from {@link #sync(long)}, which
+ * implements group commit: callers queue on one lock and the thread that gets it forces the
+ * channel once for every record appended so far, so the callers behind it usually find their
+ * position already synced and return without another fsync.
+ */
+final class WriteAheadLog implements Closeable {
+    static final byte PUT = 1;
+    static final byte CLEAR = 2;
+
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private volatile FileChannel channel;
+    private long generation;
+    private volatile long appended;
+    private long synced;
+
+    private WriteAheadLog(Path directory, long generation) throws IOException {
+        this.directory = directory;
+        this.generation = generation;
+        this.channel = openSegment(directory, generation);
+    }
+
+    static WriteAheadLog open(Path directory, long generation) throws IOException {
+        return new WriteAheadLog(directory, generation);
+    }
+
+    /**
+     * Appends a record and returns the logical position to pass to {@link #sync(long)}.
+     */
+    long appendPut(User user) throws IOException {
+        return append(encode(PUT, user));
+    }
+
+    long appendClear() throws IOException {
+        return append(encode(CLEAR, null));
+    }
+
+    private long append(ByteBuffer record) throws IOException {
+        appendLock.lock();
+        try {
+            int size = record.remaining();
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            appended += size;
+            return appended;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until every record up to {@code position} is on disk.
+     */
+    void sync(long position) throws IOException {
+        syncLock.lock();
+        try {
+            if (synced >= position) {
+                return;
+            }
+            long target = appended;
+            channel.force(false);
+            synced = target;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Closes the current segment and starts the next one. Records appended before this call are
+     * all in older segments and already synced.
+     *
+     * @return the generation of the new segment
+     */
+    long rotate() throws IOException {
+        appendLock.lock();
+        try {
+            syncLock.lock();
+            try {
+                FileChannel previous = channel;
+                previous.force(false);
+                synced = appended;
+                generation++;
+                channel = openSegment(directory, generation);
+                previous.close();
+                return generation;
+            } finally {
+                syncLock.unlock();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            channel.force(false);
+            channel.close();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    static Path segment(Path directory, long generation) {
+        return directory.resolve(PersistentFiles.name(PREFIX, generation, SUFFIX));
+    }
+
+    static long generationOf(Path file) {
+        return PersistentFiles.generation(file, PREFIX, SUFFIX);
+    }
+
+    /**
+     * Applies every intact record of a segment to {@code target}. A truncated or corrupt record
+     * ends the replay and is cut off the file, since nothing after it was ever acknowledged. A
+     * length running past the end of the file marks a corrupt header, so it is never allocated.
+     */
+    static void replay(Path segment, UserRepository target) throws IOException {
+        long size = Files.size(segment);
+        long valid = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                byte[] payload;
+                long checksum;
+                try {
+                    checksum = in.readInt() & 0xFFFFFFFFL;
+                    if (length < 1 || length > size - valid - Integer.BYTES * 2) {
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    break;
+                }
+                if (crc(payload) != checksum) {
+                    break;
+                }
+                apply(payload, target);
+                valid += Integer.BYTES * 2 + length;
+            }
+        }
+        if (valid < size) {
+            try (FileChannel truncate = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                truncate.truncate(valid);
+            }
+        }
+    }
+
+    private static void apply(byte[] payload, UserRepository target) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        if (type == PUT) {
+            target.save(UserRecordCodec.read(in));
+        } else if (type == CLEAR) {
+            target.deleteAll();
+        } else {
+            throw new IOException("Unknown log record type: " + type);
+        }
+    }
+
+    private static ByteBuffer encode(byte type, User user) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeByte(type);
+        if (user != null) {
+            UserRecordCodec.write(out, user);
+        }
+        byte[] frame = bytes.toByteArray();
+        int length = frame.length - Integer.BYTES * 2;
+        CRC32 crc = new CRC32();
+        crc.update(frame, Integer.BYTES * 2, length);
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        buffer.putInt(0, length);
+        buffer.putInt(Integer.BYTES, (int) crc.getValue());
+        return buffer;
+    }
+
+    private static long crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return crc.getValue();
+    }
+
+    private static FileChannel openSegment(Path directory, long generation) throws IOException {
+        return FileChannel.open(segment(directory, generation),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
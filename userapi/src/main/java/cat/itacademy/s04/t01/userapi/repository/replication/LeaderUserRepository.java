@@ -0,0 +1,77 @@
+package cat.itacademy.s04.t01.userapi.repository.replication;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.repository.DelegatingUserRepository;
+import cat.itacademy.s04.t01.userapi.repository.InMemoryUserRepository;
+import cat.itacademy.s04.t01.userapi.repository.StripedLocks;
+import cat.itacademy.s04.t01.userapi.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write path of the leader. Every mutation is applied to the delegate and appended to the
+ * {@link ReplicationLog} under a lock striped by user id, so followers receive the writes to one
+ * user in the order the leader applied them.
+ */
+public class LeaderUserRepository extends DelegatingUserRepository {
+    private final ReplicationLog log;
+    private final StripedLocks stripes = new StripedLocks();
+
+    LeaderUserRepository(UserRepository delegate, ReplicationLog log) {
+        super(delegate);
+        this.log = log;
+    }
+
+    @Override
+    public User save(User user) {
+        User stored = InMemoryUserRepository.storable(user);
+        ReentrantLock stripe = stripes.stripeFor(stored.getId());
+        stripe.lock();
+        try {
+            delegate.save(stored);
+            log.appendPut(stored);
+            return stored;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    @Override
+    public Optional<User> insertIfEmailAbsent(User user) {
+        User stored = InMemoryUserRepository.storable(user);
+        ReentrantLock stripe = stripes.stripeFor(stored.getId());
+        stripe.lock();
+        try {
+            Optional<User> inserted = delegate.insertIfEmailAbsent(stored);
+            inserted.ifPresent(log::appendPut);
+            return inserted;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    @Override
+    public List<Optional<User>> saveAll(List<User> users) {
+        List<Optional<User>> results = new ArrayList<>(users.size());
+        for (User user : users) {
+            results.add(insertIfEmailAbsent(user));
+        }
+        return results;
+    }
+
+    @Override
+    public void deleteAll() {
+        BitSet all = StripedLocks.all();
+        stripes.lock(all);
+        try {
+            delegate.deleteAll();
+            log.appendClear();
+        } finally {
+            stripes.unlock(all);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package cat.itacademy.s04.t01.userapi.repository.replication;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+
+/**
+ * One entry of the replication log. Offsets start at 1 and grow by one per event; {@code user} is
+ * {@code null} for {@link Type#CLEAR}.
+ */
+record ReplicationEvent(long offset, Type type, User user) {
+
+    enum Type {
+        PUT,
+        CLEAR
+    }
+}
@@ -0,0 +1,271 @@
+package cat.itacademy.s04.t01.userapi.repository.replication;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.exceptions.ReadOnlyReplicaException;
+import cat.itacademy.s04.t01.userapi.exceptions.ReplicaStaleException;
+import cat.itacademy.s04.t01.userapi.repository.DelegatingUserRepository;
+import cat.itacademy.s04.t01.userapi.repository.UserRepository;
+import cat.itacademy.s04.t01.userapi.dto.Revision;
+import cat.itacademy.s04.t01.userapi.dto.UserPage;
+import cat.itacademy.s04.t01.userapi.dto.VersionedUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Follower side of replication: a background thread keeps a connection to the leader open,
+ * applies the events it receives to the local store and reconnects after failures, resuming from
+ * the last applied offset.
+ *
+ * <p>The follower counts as in sync whenever it has applied everything up to the head offset the
+ * leader last announced. {@link #repository()} serves reads only while the follower was in sync
+ * within {@code maxStaleness}, so a reply is never older than that bound, and rejects writes.
+ * While a full copy is being loaded the store is partial, so reads are refused until it completes.
+ */
+public class ReplicationFollower implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicationFollower.class);
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(1);
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+
+    private final UserRepository store;
+    private final InetSocketAddress leader;
+    private final Duration maxStaleness;
+    private final FollowerUserRepository repository;
+    private final Thread receiver;
+
+    private volatile boolean closed;
+    private volatile Socket socket;
+    private volatile long epoch;
+    private volatile long applied;
+    private volatile long leaderHead;
+    private volatile long lastInSyncNanos;
+    private volatile boolean everInSync;
+    private volatile boolean copying;
+
+    private ReplicationFollower(UserRepository store, InetSocketAddress leader, Duration maxStaleness) {
+        this.store = store;
+        this.leader = leader;
+        this.maxStaleness = maxStaleness;
+        this.repository = new FollowerUserRepository(store);
+        this.receiver = Thread.ofPlatform().name("user-replication-follower").daemon().unstarted(this::run);
+    }
+
+    /**
+     * Starts following the leader at {@code host:port}. {@code store} must be empty; it is only
+     * written by replication from then on.
+     */
+    public static ReplicationFollower start(UserRepository store, String host, int port, Duration maxStaleness) {
+        ReplicationFollower follower = new ReplicationFollower(store, new InetSocketAddress(host, port), maxStaleness);
+        follower.receiver.start();
+        return follower;
+    }
+
+    /**
+     * Read-only view of the replicated store.
+     */
+    public UserRepository repository() {
+        return repository;
+    }
+
+    public long appliedOffset() {
+        return applied;
+    }
+
+    /**
+     * Events announced by the leader that are not applied here yet.
+     */
+    public long lag() {
+        return Math.max(0, leaderHead - applied);
+    }
+
+    public boolean isInSync() {
+        return everInSync && !copying && System.nanoTime() - lastInSyncNanos <= maxStaleness.toNanos();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        receiver.interrupt();
+        Socket current = socket;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private void run() {
+        while (!closed) {
+            try (Socket connection = new Socket()) {
+                connection.connect(leader, (int) CONNECT_TIMEOUT.toMillis());
+                connection.setTcpNoDelay(true);
+                socket = connection;
+                follow(connection);
+            } catch (IOException e) {
+                if (!closed) {
+                    log.warn("Replication from {} interrupted: {}", leader, e.toString());
+                }
+            }
+            try {
+                Thread.sleep(RECONNECT_DELAY);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void follow(Socket connection) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+        DataOutputStream out = new DataOutputStream(connection.getOutputStream());
+        out.writeLong(epoch);
+        out.writeLong(applied);
+        out.flush();
+        long leaderEpoch = in.readLong();
+        log.info("Following {} from offset {}", leader, applied);
+
+        while (!closed) {
+            byte type = in.readByte();
+            long head = in.readLong();
+            switch (type) {
+                case ReplicationProtocol.EVENTS -> apply(ReplicationProtocol.readEvents(in));
+                case ReplicationProtocol.HEARTBEAT -> {
+                }
+                case ReplicationProtocol.COPY_START -> {
+                    // Until COPY_END the store is partial. Forgetting the epoch makes the leader
+                    // restart the copy if the connection drops before then.
+                    copying = true;
+                    epoch = 0;
+                    applied = 0;
+                    store.deleteAll();
+                }
+                case ReplicationProtocol.COPY_END -> {
+                    copying = false;
+                    epoch = leaderEpoch;
+                    applied = head;
+                }
+                default -> throw new IOException("Unknown replication frame type " + type);
+            }
+            leaderHead = head;
+            if (!copying && applied >= head) {
+                lastInSyncNanos = System.nanoTime();
+                everInSync = true;
+            }
+        }
+    }
+
+    private void apply(List<ReplicationEvent> events) {
+        for (ReplicationEvent event : events) {
+            if (event.type() == ReplicationEvent.Type.PUT) {
+                store.save(event.user());
+            } else {
+                store.deleteAll();
+            }
+        }
+        if (!copying && !events.isEmpty()) {
+            applied = events.getLast().offset();
+        }
+    }
+
+    /**
+     * Serves reads from the replicated store within the staleness bound and rejects writes.
+     */
+    private final class FollowerUserRepository extends DelegatingUserRepository {
+
+        private FollowerUserRepository(UserRepository delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public User save(User user) {
+            throw new ReadOnlyReplicaException();
+        }
+
+        @Override
+        public Optional<User> insertIfEmailAbsent(User user) {
+            throw new ReadOnlyReplicaException();
+        }
+
+        @Override
+        public List<Optional<User>> saveAll(List<User> users) {
+            throw new ReadOnlyReplicaException();
+        }
+
+        @Override
+        public void deleteAll() {
+            throw new ReadOnlyReplicaException();
+        }
+
+        @Override
+        public List<User> findAll() {
+            requireFresh();
+            return super.findAll();
+        }
+
+        @Override
+        public Optional<User> findById(UUID id) {
+            requireFresh();
+            return super.findById(id);
+        }
+
+        @Override
+        public List<User> findAllById(Collection<UUID> ids) {
+            requireFresh();
+            return super.findAllById(ids);
+        }
+
+        @Override
+        public Optional<VersionedUser> findVersionedById(UUID id) {
+            requireFresh();
+            return super.findVersionedById(id);
+        }
+
+        @Override
+        public Revision revision() {
+            requireFresh();
+            return super.revision();
+        }
+
+        @Override
+        public List<User> searchByName(String name) {
+            requireFresh();
+            return super.searchByName(name);
+        }
+
+        @Override
+        public boolean existsByEmail(String email) {
+            requireFresh();
+            return super.existsByEmail(email);
+        }
+
+        @Override
+        public List<User> findByNamePrefix(String prefix, int limit) {
+            requireFresh();
+            return super.findByNamePrefix(prefix, limit);
+        }
+
+        @Override
+        public UserPage findPage(String name, Long cursor, int limit) {
+            requireFresh();
+            return super.findPage(name, cursor, limit);
+        }
+
+        @Override
+        public Stream<User> streamAll() {
+            requireFresh();
+            return super.streamAll();
+        }
+
+        private void requireFresh() {
+            if (!isInSync()) {
+                throw new ReplicaStaleException(maxStaleness);
+            }
+        }
+    }
+}
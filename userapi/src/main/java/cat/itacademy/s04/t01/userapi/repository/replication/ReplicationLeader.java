@@ -0,0 +1,165 @@
+package cat.itacademy.s04.t01.userapi.repository.replication;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Leader side of replication: logs the writes made through {@link #repository()} and ships them to
+ * every connected follower over TCP. Each follower has its own sender thread that drains the log
+ * in batches of up to {@code batchSize} events, so a slow follower never holds back writers or
+ * other followers, and sends a heartbeat whenever the log stays quiet for {@code heartbeatInterval}.
+ *
+ * <p>A follower that asks for events no longer in the log, or that followed an earlier run of the
+ * leader, first receives a full copy of the store. The head offset is read before copying; because a put carries the whole user and writes
+ * to one user are logged in order, replaying the events after that offset on top of the copy
+ * converges to the leader's state even if the copy already saw some of them.
+ */
+public class ReplicationLeader implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicationLeader.class);
+
+    private final UserRepository store;
+    private final ReplicationLog replicationLog;
+    private final LeaderUserRepository repository;
+    private final ServerSocket serverSocket;
+    private final int batchSize;
+    private final Duration heartbeatInterval;
+    private final long epoch = ThreadLocalRandom.current().nextLong();
+    private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+
+    private ReplicationLeader(UserRepository store, ServerSocket serverSocket, int batchSize, Duration heartbeatInterval, int logCapacity) {
+        this.store = store;
+        this.replicationLog = new ReplicationLog(logCapacity);
+        this.repository = new LeaderUserRepository(store, replicationLog);
+        this.serverSocket = serverSocket;
+        this.batchSize = batchSize;
+        this.heartbeatInterval = heartbeatInterval;
+        this.acceptor = Thread.ofPlatform().name("user-replication-acceptor").daemon().start(this::accept);
+    }
+
+    /**
+     * Starts listening for followers on {@code port}; 0 picks a free port.
+     */
+    public static ReplicationLeader start(UserRepository store, int port, int batchSize, Duration heartbeatInterval, int logCapacity) throws IOException {
+        ServerSocket serverSocket = new ServerSocket(port);
+        log.info("Replication leader listening on port {}", serverSocket.getLocalPort());
+        return new ReplicationLeader(store, serverSocket, batchSize, heartbeatInterval, logCapacity);
+    }
+
+    /**
+     * The repository writes have to go through to be replicated.
+     */
+    public UserRepository repository() {
+        return repository;
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public long headOffset() {
+        return replicationLog.head();
+    }
+
+    public int followerCount() {
+        return followers.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket follower : followers) {
+            follower.close();
+        }
+        acceptor.interrupt();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                followers.add(socket);
+                Thread.ofVirtual().name("user-replication-" + socket.getRemoteSocketAddress()).start(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("Failed to accept a follower", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            long followerEpoch = in.readLong();
+            long sent = in.readLong();
+            log.info("Follower {} connected at offset {}", socket.getRemoteSocketAddress(), sent);
+            out.writeLong(epoch);
+            if (followerEpoch != epoch || !replicationLog.retains(sent)) {
+                sent = sendCopy(out);
+            }
+            while (!socket.isClosed()) {
+                List<ReplicationEvent> events = replicationLog.read(sent, batchSize, heartbeatInterval.toNanos(), TimeUnit.NANOSECONDS);
+                if (events == null) {
+                    sent = sendCopy(out);
+                } else if (events.isEmpty()) {
+                    ReplicationProtocol.writeControl(out, ReplicationProtocol.HEARTBEAT, replicationLog.head());
+                } else {
+                    sent = events.getLast().offset();
+                    ReplicationProtocol.writeEvents(out, replicationLog.head(), events);
+                }
+                out.flush();
+            }
+        } catch (EOFException | SocketException e) {
+            log.info("Follower {} disconnected", socket.getRemoteSocketAddress());
+        } catch (IOException e) {
+            log.warn("Replication to {} failed", socket.getRemoteSocketAddress(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            followers.remove(socket);
+        }
+    }
+
+    /**
+     * Ships every user as put events stamped with the head offset read before the copy started.
+     *
+     * @return the offset the follower resumes from
+     */
+    private long sendCopy(DataOutputStream out) throws IOException {
+        long offset = replicationLog.head();
+        ReplicationProtocol.writeControl(out, ReplicationProtocol.COPY_START, offset);
+        try (Stream<User> users = store.streamAll()) {
+            Iterator<User> iterator = users.iterator();
+            List<ReplicationEvent> batch = new ArrayList<>(batchSize);
+            while (iterator.hasNext()) {
+                batch.add(new ReplicationEvent(offset, ReplicationEvent.Type.PUT, iterator.next()));
+                if (batch.size() == batchSize || !iterator.hasNext()) {
+                    ReplicationProtocol.writeEvents(out, offset, batch);
+                    batch.clear();
+                }
+            }
+        }
+        ReplicationProtocol.writeControl(out, ReplicationProtocol.COPY_END, offset);
+        out.flush();
+        return offset;
+    }
+}
@@ -0,0 +1,97 @@
+package cat.itacademy.s04.t01.userapi.repository.replication;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, ordered log of the writes applied on the leader. The newest {@code capacity} events are
+ * kept in a ring; a follower further behind than that has to start over from a full copy.
+ */
+final class ReplicationLog {
+    private final ReplicationEvent[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private long head;
+
+    ReplicationLog(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The log capacity must be positive.");
+        }
+        this.ring = new ReplicationEvent[capacity];
+    }
+
+    long appendPut(User user) {
+        return append(ReplicationEvent.Type.PUT, user);
+    }
+
+    long appendClear() {
+        return append(ReplicationEvent.Type.CLEAR, null);
+    }
+
+    /**
+     * Offset of the newest event, or 0 when nothing was logged yet.
+     */
+    long head() {
+        lock.lock();
+        try {
+            return head;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether every event after {@code offset} is still in the log.
+     */
+    boolean retains(long offset) {
+        lock.lock();
+        try {
+            return offset <= head && head - offset <= ring.length;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code max} events following {@code after}, waiting up to {@code timeout} for
+     * the first one. An empty list means the wait timed out; {@code null} means the events were
+     * already overwritten.
+     */
+    List<ReplicationEvent> read(long after, int max, long timeout, TimeUnit unit) throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = unit.toNanos(timeout);
+            while (head == after && remaining > 0) {
+                remaining = appended.awaitNanos(remaining);
+            }
+            if (after > head || head - after > ring.length) {
+                return null;
+            }
+            int count = (int) Math.min(max, head - after);
+            List<ReplicationEvent> events = new ArrayList<>(count);
+            for (long offset = after + 1; offset <= after + count; offset++) {
+                events.add(ring[(int) (offset % ring.length)]);
+            }
+            return events;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long append(ReplicationEvent.Type type, User user) {
+        lock.lock();
+        try {
+            long offset = ++head;
+            ring[(int) (offset % ring.length)] = new ReplicationEvent(offset, type, user);
+            appended.signalAll();
+            return offset;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package cat.itacademy.s04.t01.userapi.repository.replication;
+
+import cat.itacademy.s04.t01.userapi.repository.persistence.UserRecordCodec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wire format between leader and followers. A follower opens the connection by sending the epoch
+ * of the leader run it followed and the offset it has applied there; the leader answers with its
+ * own epoch, drawn at random on startup, and from then on only sends frames, each starting with a
+ * type byte and the leader's head offset:
+ * <ul>
+ *     <li>{@code EVENTS}: a count, then per event its offset, its type and, for a put, the user;</li>
+ *     <li>{@code HEARTBEAT}: nothing else, sent when there was nothing to ship for a while;</li>
+ *     <li>{@code COPY_START} and {@code COPY_END}: bracket a full copy of the store, shipped as put
+ *     events, when the follower is too far behind for the log.</li>
+ * </ul>
+ */
+final class ReplicationProtocol {
+    static final byte EVENTS = 1;
+    static final byte HEARTBEAT = 2;
+    static final byte COPY_START = 3;
+    static final byte COPY_END = 4;
+
+    private static final byte PUT = 1;
+    private static final byte CLEAR = 2;
+
+    private ReplicationProtocol() {
+    }
+
+    static void writeEvents(DataOutput out, long head, List<ReplicationEvent> events) throws IOException {
+        out.writeByte(EVENTS);
+        out.writeLong(head);
+        out.writeInt(events.size());
+        for (ReplicationEvent event : events) {
+            out.writeLong(event.offset());
+            if (event.type() == ReplicationEvent.Type.PUT) {
+                out.writeByte(PUT);
+                UserRecordCodec.write(out, event.user());
+            } else {
+                out.writeByte(CLEAR);
+            }
+        }
+    }
+
+    static void writeControl(DataOutput out, byte type, long head) throws IOException {
+        out.writeByte(type);
+        out.writeLong(head);
+    }
+
+    static List<ReplicationEvent> readEvents(DataInput in) throws IOException {
+        int count = in.readInt();
+        List<ReplicationEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long offset = in.readLong();
+            byte type = in.readByte();
+            switch (type) {
+                case PUT -> events.add(new ReplicationEvent(offset, ReplicationEvent.Type.PUT, UserRecordCodec.read(in)));
+                case CLEAR -> events.add(new ReplicationEvent(offset, ReplicationEvent.Type.CLEAR, null));
+                default -> throw new IOException("Unknown replication event type " + type);
+            }
+        }
+        return events;
+    }
+}
@@ -0,0 +1,17 @@
+package cat.itacademy.s04.t01.userapi.service;
+
+import cat.itacademy.s04.t01.userapi.dto.CreateUserResult;
+import cat.itacademy.s04.t01.userapi.dto.UserPage;
+import cat.itacademy.s04.t01.userapi.entities.User;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+public interface ReactiveUserService {
+    Mono<CreateUserResult> registerUser(User user);
+    Mono<User> getUserById(UUID id);
+    Flux<User> getUsersByName(String name);
+    Mono<UserPage> getUsersPage(String name, Long cursor, int limit);
+    Mono<Boolean> isEmailAlreadyRegistered(String email);
+}
@@ -0,0 +1,71 @@
+package cat.itacademy.s04.t01.userapi.service;
+
+import cat.itacademy.s04.t01.userapi.dto.CreateUserResult;
+import cat.itacademy.s04.t01.userapi.dto.UserPage;
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.exceptions.UserNotFoundException;
+import cat.itacademy.s04.t01.userapi.repository.ReactiveUserRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Reactive counterpart of {@link UserServiceImpl}, with the same rules and errors signalled
+ * through the returned publishers.
+ */
+@Service
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+
+    private final ReactiveUserRepository userRepository;
+
+    public ReactiveUserServiceImpl(ReactiveUserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Like {@link UserServiceImpl#registerUser(User)}, a refused insert is a result rather than an
+     * error signal.
+     */
+    @Override
+    public Mono<CreateUserResult> registerUser(User user) {
+        return userRepository.insertIfEmailAbsent(user)
+                .<CreateUserResult>map(CreateUserResult.Created::new)
+                .switchIfEmpty(Mono.defer(() -> refusal(user)));
+    }
+
+    private Mono<CreateUserResult> refusal(User user) {
+        CreateUserResult duplicateEmail = new CreateUserResult.DuplicateEmail(user.getEmail());
+        if (user.getId() == null) {
+            return Mono.just(duplicateEmail);
+        }
+        return userRepository.findById(user.getId())
+                .<CreateUserResult>map(existing -> new CreateUserResult.DuplicateId(user.getId()))
+                .defaultIfEmpty(duplicateEmail);
+    }
+
+    @Override
+    public Mono<User> getUserById(UUID id) {
+        return userRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)));
+    }
+
+    @Override
+    public Flux<User> getUsersByName(String name) {
+        if (name == null || name.isBlank()) {
+            return userRepository.findAll();
+        }
+        return userRepository.searchByName(name);
+    }
+
+    @Override
+    public Mono<UserPage> getUsersPage(String name, Long cursor, int limit) {
+        return userRepository.findPage(name, cursor, limit);
+    }
+
+    @Override
+    public Mono<Boolean> isEmailAlreadyRegistered(String email) {
+        return userRepository.existsByEmail(email);
+    }
+}
@@ -1,15 +1,36 @@
 package cat.itacademy.s04.t01.userapi.service;
 
+import cat.itacademy.s04.t01.userapi.dto.BulkImportResult;
+import cat.itacademy.s04.t01.userapi.dto.CreateUserResult;
+import cat.itacademy.s04.t01.userapi.dto.Revision;
+import cat.itacademy.s04.t01.userapi.dto.UserLookupResult;
+import cat.itacademy.s04.t01.userapi.dto.UserPage;
+import cat.itacademy.s04.t01.userapi.dto.UserRequest;
+import cat.itacademy.s04.t01.userapi.dto.UserSuggestion;
+import cat.itacademy.s04.t01.userapi.dto.VersionedUser;
 import cat.itacademy.s04.t01.userapi.entities.User;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public interface UserService {
     User createUser(User user);
+    CreateUserResult registerUser(User user);
+    CompletableFuture<CreateUserResult> registerUserAsync(User user);
+    BulkImportResult importUsers(Iterator<UserRequest> requests);
     User getUserById(UUID id);
+    Optional<User> findUserById(UUID id);
+    Optional<VersionedUser> findVersionedUserById(UUID id);
+    UserLookupResult lookupUsers(List<UUID> ids);
+    Revision getUsersRevision();
     List<User> getAllUsers();
     List<User> searchUsersByName(String name);
+    List<UserSuggestion> suggestUsers(String prefix, int limit);
+    UserPage getUsersPage(String name, Long cursor, int limit);
+    Stream<User> streamUsersByName(String name);
     boolean isEmailAlreadyRegistered(String email);
 }
@@ -1,27 +1,159 @@
 package cat.itacademy.s04.t01.userapi.service;
 
+import cat.itacademy.s04.t01.userapi.dto.BulkImportResult;
+import cat.itacademy.s04.t01.userapi.dto.BulkItemResult;
+import cat.itacademy.s04.t01.userapi.dto.CreateUserResult;
+import cat.itacademy.s04.t01.userapi.dto.Revision;
+import cat.itacademy.s04.t01.userapi.dto.UserLookupResult;
+import cat.itacademy.s04.t01.userapi.dto.UserPage;
+import cat.itacademy.s04.t01.userapi.dto.UserRequest;
+import cat.itacademy.s04.t01.userapi.dto.UserSuggestion;
+import cat.itacademy.s04.t01.userapi.dto.VersionedUser;
 import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.exceptions.InvalidBulkPayloadException;
 import cat.itacademy.s04.t01.userapi.exceptions.UserNotFoundException;
 import cat.itacademy.s04.t01.userapi.repository.UserRepository;
+import cat.itacademy.s04.t01.userapi.repository.WritePipeline;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 
 @Service
 public class UserServiceImpl implements  UserService {
+    static final int IMPORT_BATCH_SIZE = 1000;
+
     private final UserRepository userRepository;
+    private final WritePipeline writePipeline;
 
     public UserServiceImpl(UserRepository userRepository){
+        this(userRepository, null);
+    }
+
+    /**
+     * @param writePipeline when present, registrations are queued and applied in batches by its
+     *                      writer thread instead of on the calling thread
+     */
+    @Autowired
+    public UserServiceImpl(UserRepository userRepository, @Nullable WritePipeline writePipeline){
         this.userRepository = userRepository;
+        this.writePipeline = writePipeline;
     }
 
     @Override
     public User createUser(User user) {
-        if (userRepository.existsByEmail(user.getEmail())) {
-            throw new IllegalArgumentException("Email already registered: " + user.getEmail());
+        return userRepository.insertIfEmailAbsent(user)
+                .orElseThrow(() -> new IllegalArgumentException("Email already registered: " + user.getEmail()));
+    }
+
+    @Override
+    public CreateUserResult registerUser(User user) {
+        if (writePipeline == null) {
+            return toResult(user, userRepository.insertIfEmailAbsent(user));
+        }
+        try {
+            return registerUserAsync(user).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<CreateUserResult> registerUserAsync(User user) {
+        if (writePipeline == null) {
+            return CompletableFuture.completedFuture(registerUser(user));
+        }
+        return writePipeline.submit(user).thenApply(inserted -> toResult(user, inserted));
+    }
+
+    private CreateUserResult toResult(User user, Optional<User> inserted) {
+        if (inserted.isPresent()) {
+            return new CreateUserResult.Created(inserted.get());
+        }
+        return idTaken(user)
+                ? new CreateUserResult.DuplicateId(user.getId())
+                : new CreateUserResult.DuplicateEmail(user.getEmail());
+    }
+
+    /**
+     * Tells which check refused an insert, for the error message only; the insert itself already
+     * was atomic.
+     */
+    private boolean idTaken(User user) {
+        return user.getId() != null && userRepository.findById(user.getId()).isPresent();
+    }
+
+    @Override
+    public BulkImportResult importUsers(Iterator<UserRequest> requests) {
+        List<BulkItemResult> items = new ArrayList<>();
+        List<User> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        List<Integer> batchIndexes = new ArrayList<>(IMPORT_BATCH_SIZE);
+        int created = 0;
+        int index = 0;
+        String error = null;
+
+        try {
+            while (requests.hasNext()) {
+                UserRequest request = requests.next();
+                if (request == null) {
+                    items.add(BulkItemResult.invalid(index, "The user cannot be null."));
+                } else {
+                    try {
+                        batch.add(new User(request.id(), request.name(), request.email()));
+                        batchIndexes.add(index);
+                    } catch (IllegalArgumentException e) {
+                        items.add(BulkItemResult.invalid(index, e.getMessage()));
+                    }
+                }
+                index++;
+
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    created += flushImportBatch(batch, batchIndexes, items);
+                }
+            }
+        } catch (InvalidBulkPayloadException e) {
+            error = e.getMessage();
+        }
+        created += flushImportBatch(batch, batchIndexes, items);
+
+        items.sort((a, b) -> Integer.compare(a.index(), b.index()));
+        return error == null
+                ? new BulkImportResult(created, items.size() - created, items)
+                : new BulkImportResult(created, items.size() - created, items, index, error);
+    }
+
+    private int flushImportBatch(List<User> batch, List<Integer> batchIndexes, List<BulkItemResult> items) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Optional<User>> stored = userRepository.saveAll(batch);
+        int created = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            int index = batchIndexes.get(i);
+            if (stored.get(i).isPresent()) {
+                items.add(BulkItemResult.created(index, stored.get(i).get()));
+                created++;
+            } else {
+                User rejected = batch.get(i);
+                items.add(idTaken(rejected)
+                        ? BulkItemResult.duplicateId(index, rejected.getId())
+                        : BulkItemResult.duplicate(index, rejected.getEmail()));
+            }
         }
-        return userRepository.save(user);
+        batch.clear();
+        batchIndexes.clear();
+        return created;
     }
 
     @Override
@@ -31,6 +163,44 @@ public class UserServiceImpl implements  UserService {
                 .orElseThrow(() -> new UserNotFoundException(id));
     }
 
+    @Override
+    public Optional<User> findUserById(UUID id) {
+        return userRepository.findById(id);
+    }
+
+    @Override
+    public Optional<VersionedUser> findVersionedUserById(UUID id) {
+        return userRepository.findVersionedById(id);
+    }
+
+    /**
+     * Repeated ids are looked up once. Missing ids are reported in request order.
+     */
+    @Override
+    public UserLookupResult lookupUsers(List<UUID> ids) {
+        Set<UUID> distinct = new LinkedHashSet<>(ids);
+        List<User> users = userRepository.findAllById(distinct);
+        if (users.size() == distinct.size()) {
+            return new UserLookupResult(users, List.of());
+        }
+        Set<UUID> found = new HashSet<>();
+        for (User user : users) {
+            found.add(user.getId());
+        }
+        List<UUID> missing = new ArrayList<>(distinct.size() - users.size());
+        for (UUID id : distinct) {
+            if (!found.contains(id)) {
+                missing.add(id);
+            }
+        }
+        return new UserLookupResult(users, missing);
+    }
+
+    @Override
+    public Revision getUsersRevision() {
+        return userRepository.revision();
+    }
+
     @Override
     public List<User> getAllUsers() {
         return userRepository.findAll();
@@ -41,6 +211,29 @@ public class UserServiceImpl implements  UserService {
         return userRepository.searchByName(name);
     }
 
+    @Override
+    public List<UserSuggestion> suggestUsers(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        return userRepository.findByNamePrefix(prefix, limit).stream()
+                .map(UserSuggestion::of)
+                .toList();
+    }
+
+    @Override
+    public UserPage getUsersPage(String name, Long cursor, int limit) {
+        return userRepository.findPage(name, cursor, limit);
+    }
+
+    @Override
+    public Stream<User> streamUsersByName(String name) {
+        if (name == null || name.isBlank()) {
+            return userRepository.streamAll();
+        }
+        return userRepository.searchByName(name).stream();
+    }
+
     @Override
     public boolean isEmailAlreadyRegistered(String email) {
         return userRepository.existsByEmail(email);
@@ -0,0 +1,79 @@
+package cat.itacademy.s04.t01.userapi.controllers;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "userapi.cache.enabled=true")
+@AutoConfigureMockMvc
+class CachedUserAcceptanceTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void getUserById_isServedFromTheCache() throws Exception {
+        String created = createUser(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Ada Lovelace\", \"email\": \"ada.cached@example.com\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        User user = objectMapper.readValue(created, User.class);
+
+        String etag = mockMvc.perform(get("/users/{id}", user.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        double hits = cacheHits();
+
+        mockMvc.perform(get("/users/{id}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(jsonPath("$.email").value("ada.cached@example.com"));
+        assertEquals(hits + 1, cacheHits());
+    }
+
+    @Test
+    void getUserById_cachesMisses() throws Exception {
+        UUID missing = UUID.randomUUID();
+        mockMvc.perform(get("/users/{id}", missing)).andExpect(status().isNotFound());
+        double hits = cacheHits();
+
+        mockMvc.perform(get("/users/{id}", missing)).andExpect(status().isNotFound());
+        assertEquals(hits + 1, cacheHits());
+    }
+
+    private double cacheHits() {
+        return meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "hit").functionCounter().count();
+    }
+
+    /**
+     * Creating a user answers with a future, so the response is written by the async dispatch.
+     */
+    private ResultActions createUser(RequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+}
@@ -0,0 +1,103 @@
+package cat.itacademy.s04.t01.userapi.controllers;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.repository.InMemoryUserRepository;
+import cat.itacademy.s04.t01.userapi.repository.replication.ReplicationFollower;
+import cat.itacademy.s04.t01.userapi.repository.replication.ReplicationLeader;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"userapi.replication.role=follower", "userapi.cache.enabled=true"})
+@AutoConfigureMockMvc
+class FollowerAcceptanceTest {
+    private static final ReplicationLeader LEADER = startLeader();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReplicationFollower follower;
+
+    @DynamicPropertySource
+    static void leaderAddress(DynamicPropertyRegistry registry) {
+        registry.add("userapi.replication.port", LEADER::port);
+    }
+
+    @AfterAll
+    static void stopLeader() throws IOException {
+        LEADER.close();
+    }
+
+    @Test
+    void getUserById_onFollowerWithCache_seesReplicatedInsertsAndUpdates() throws Exception {
+        UUID id = UUID.randomUUID();
+        awaitReplicated();
+        mockMvc.perform(get("/users/{id}", id)).andExpect(status().isNotFound());
+
+        LEADER.repository().save(new User(id, "Ada Lovelace", "ada.follower@example.com"));
+        awaitReplicated();
+        mockMvc.perform(get("/users/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Ada Lovelace"));
+
+        LEADER.repository().save(new User(id, "Ada King", "ada.follower@example.com"));
+        awaitReplicated();
+        mockMvc.perform(get("/users/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Ada King"));
+    }
+
+    @Test
+    void events_onFollower_streamReplicatedChanges() throws Exception {
+        awaitReplicated();
+        MvcResult result = mockMvc.perform(get("/users/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        LEADER.repository().save(new User(null, "Grace Hopper", "grace.follower@example.com"));
+
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        String body = result.getResponse().getContentAsString();
+        while (!body.contains("Grace Hopper") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            body = result.getResponse().getContentAsString();
+        }
+        assertTrue(body.contains("event:SAVED"), "Missing replicated change in " + body);
+        assertTrue(body.contains("Grace Hopper"), "Missing replicated change in " + body);
+    }
+
+    private void awaitReplicated() throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (follower.appliedOffset() < LEADER.headOffset() || !follower.isInSync()) {
+            if (System.nanoTime() > deadline) {
+                fail("Follower did not catch up with the leader");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static ReplicationLeader startLeader() {
+        try {
+            return ReplicationLeader.start(new InMemoryUserRepository(), 0, 16, Duration.ofMillis(20), 1000);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
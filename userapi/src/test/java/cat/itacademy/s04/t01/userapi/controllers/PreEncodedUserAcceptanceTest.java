@@ -0,0 +1,84 @@
+package cat.itacademy.s04.t01.userapi.controllers;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.repository.InMemoryUserRepository;
+import cat.itacademy.s04.t01.userapi.repository.UserJsonCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "userapi.serialization.pre-encoded=true")
+@AutoConfigureMockMvc
+class PreEncodedUserAcceptanceTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InMemoryUserRepository store;
+
+    @Autowired
+    private UserJsonCache userJsonCache;
+
+    @BeforeEach
+    void setUp() {
+        store.deleteAll();
+        userJsonCache.clear();
+    }
+
+    @Test
+    void createdUser_isEncodedOnSaveAndServedAsJackson() throws Exception {
+        String created = createUser(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Ada Lovelace\", \"email\": \"ada@example.com\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        User user = objectMapper.readValue(created, User.class);
+        assertEquals(1, userJsonCache.size());
+
+        mockMvc.perform(get("/users/{id}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(content().string(objectMapper.writeValueAsString(user)));
+    }
+
+    @Test
+    void userList_isWrittenFromPreEncodedBytes() throws Exception {
+        User ada = store.save(new User(null, "Ada Lovelace", "ada@example.com"));
+        User alan = store.save(new User(null, "Alan Turing", "alan@example.com"));
+
+        mockMvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(
+                        "[" + objectMapper.writeValueAsString(ada) + "," + objectMapper.writeValueAsString(alan) + "]"));
+
+        mockMvc.perform(get("/users").param("name", "nobody"))
+                .andExpect(content().string("[]"));
+        mockMvc.perform(get("/users/autocomplete").param("prefix", "a"))
+                .andExpect(jsonPath("$[0].name").value("Ada Lovelace"));
+    }
+
+    /**
+     * Creating a user answers with a future, so the response is written by the async dispatch.
+     */
+    private ResultActions createUser(RequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+}
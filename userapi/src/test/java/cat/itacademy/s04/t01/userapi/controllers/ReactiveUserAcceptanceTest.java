@@ -0,0 +1,125 @@
+package cat.itacademy.s04.t01.userapi.controllers;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.repository.InMemoryUserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReactiveUserAcceptanceTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InMemoryUserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void createUser_thenGetById_returnsUser() throws Exception {
+        MvcResult created = perform(post("/reactive/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new User(null, "Ada Lovelace", "ada@example.com"))));
+        String body = mockMvc.perform(asyncDispatch(created))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").exists())
+                .andReturn().getResponse().getContentAsString();
+        UUID id = objectMapper.readValue(body, User.class).getId();
+
+        mockMvc.perform(asyncDispatch(perform(get("/reactive/users/{id}", id))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Ada Lovelace"));
+    }
+
+    @Test
+    void getUserById_returnsNotFoundIfMissing() throws Exception {
+        mockMvc.perform(asyncDispatch(perform(get("/reactive/users/{id}", UUID.randomUUID()))))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getUsers_withNameParam_returnsJsonArray() throws Exception {
+        userRepository.save(new User(null, "Joan", "joan@gmail.com"));
+        userRepository.save(new User(null, "María", "mawi@gmail.com"));
+
+        mockMvc.perform(asyncDispatch(perform(get("/reactive/users").param("name", "jo"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Joan"));
+    }
+
+    @Test
+    void createUser_withTakenEmail_returnsConflict() throws Exception {
+        userRepository.save(new User(null, "Ada Lovelace", "ada@example.com"));
+
+        mockMvc.perform(asyncDispatch(perform(post("/reactive/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Ada King\", \"email\": \"ada@example.com\"}"))))
+                .andExpect(status().isConflict())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.detail").value("Email already registered: ada@example.com"));
+    }
+
+    @Test
+    void getUsers_asJson_isPagedWithCursor() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            userRepository.save(new User(null, "User " + i, "user" + i + "@example.com"));
+        }
+
+        MvcResult first = mockMvc.perform(asyncDispatch(perform(get("/reactive/users").param("limit", "2"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().exists(UserController.NEXT_CURSOR_HEADER))
+                .andReturn();
+        String cursor = first.getResponse().getHeader(UserController.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(asyncDispatch(perform(get("/reactive/users").param("limit", "2").param("cursor", cursor))))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("User 2"))
+                .andExpect(header().doesNotExist(UserController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getUsers_acceptingNdjson_streamsOneUserPerLine() throws Exception {
+        userRepository.save(new User(null, "Joan", "joan@gmail.com"));
+        userRepository.save(new User(null, "María", "mawi@gmail.com"));
+
+        String body = mockMvc.perform(asyncDispatch(perform(get("/reactive/users").accept(MediaType.APPLICATION_NDJSON))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Joan", objectMapper.readValue(lines[0], User.class).getName());
+        assertEquals("María", objectMapper.readValue(lines[1], User.class).getName());
+    }
+
+    private MvcResult perform(RequestBuilder builder) throws Exception {
+        return mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+}
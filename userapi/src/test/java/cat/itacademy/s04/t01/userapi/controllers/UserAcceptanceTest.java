@@ -1,8 +1,10 @@
 package cat.itacademy.s04.t01.userapi.controllers;
 
+import cat.itacademy.s04.t01.userapi.dto.UserRequest;
 import cat.itacademy.s04.t01.userapi.entities.User;
 import cat.itacademy.s04.t01.userapi.repository.InMemoryUserRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -10,11 +12,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
@@ -31,9 +44,15 @@ class UserAcceptanceTest {
     @Autowired
     private InMemoryUserRepository userRepository;
 
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
     @BeforeEach
     void setUp() {
-        userRepository.findAll().clear();
+        userRepository.deleteAll();
     }
 
 
@@ -49,7 +68,7 @@ class UserAcceptanceTest {
     void createUser_returnsUserWithId() throws Exception {
         User user = new User(null, "Ada Lovelace", "ada@example.com");
 
-        mockMvc.perform(post("/users")
+        createUser(post("/users")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(user)))
                 .andExpect(status().isCreated())
@@ -63,7 +82,7 @@ class UserAcceptanceTest {
     void getUserById_returnsCorrectUser() throws Exception {
         User user = new User(null, "Ada Lovelace", "ada@example.com");
 
-        MvcResult result = mockMvc.perform(post("/users")
+        MvcResult result = createUser(post("/users")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(user)))
                 .andExpect(status().isCreated())
@@ -85,23 +104,135 @@ class UserAcceptanceTest {
 
     }
 
+    @Test
+    void getUserById_withMatchingEtag_returnsNotModified() throws Exception {
+        User created = userRepository.save(new User(null, "Ada Lovelace", "ada@example.com"));
+
+        String etag = mockMvc.perform(get("/users/{id}", created.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/users/{id}", created.getId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        userRepository.save(new User(created.getId(), "Ada King", "ada@example.com"));
+        mockMvc.perform(get("/users/{id}", created.getId()).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Ada King"));
+    }
+
+    @Test
+    void getUserById_withIfModifiedSince_returnsTheCurrentUser() throws Exception {
+        User created = userRepository.save(new User(null, "Ada Lovelace", "ada@example.com"));
+        userRepository.save(new User(created.getId(), "Ada King", "ada@example.com"));
+
+        mockMvc.perform(get("/users/{id}", created.getId())
+                        .header("If-Modified-Since", "Fri, 01 Jan 2100 00:00:00 GMT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Ada King"));
+        mockMvc.perform(get("/users").header("If-Modified-Since", "Fri, 01 Jan 2100 00:00:00 GMT"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Last-Modified"));
+    }
+
+    @Test
+    void getUsers_withMatchingEtag_returnsNotModifiedUntilTheStoreChanges() throws Exception {
+        userRepository.save(new User(null, "Ada Lovelace", "ada@example.com"));
+
+        String etag = mockMvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/users").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        userRepository.save(new User(null, "Alan Turing", "alan@example.com"));
+        mockMvc.perform(get("/users").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void lookupUsers_returnsFoundUsersAndMissingIds() throws Exception {
+        User ada = userRepository.save(new User(null, "Ada Lovelace", "ada@example.com"));
+        User alan = userRepository.save(new User(null, "Alan Turing", "alan@example.com"));
+        UUID missing = UUID.randomUUID();
+
+        mockMvc.perform(post("/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(alan.getId(), missing, ada.getId()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(2))
+                .andExpect(jsonPath("$.users[0].name").value("Alan Turing"))
+                .andExpect(jsonPath("$.users[1].name").value("Ada Lovelace"))
+                .andExpect(jsonPath("$.missing[0]").value(missing.toString()));
+    }
+
+    @Test
+    void lookupUsers_withTooManyIds_returnsBadRequest() throws Exception {
+        List<UUID> ids = Stream.generate(UUID::randomUUID).limit(1001).toList();
+
+        mockMvc.perform(post("/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void lookupUsers_withNullId_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"" + UUID.randomUUID() + "\", null]"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getUserById_returnsNotFoundIfMissing() throws Exception {
         UUID randomId = UUID.randomUUID();
         mockMvc.perform(get("/users/{id}", randomId))
-                .andExpect(status().isNotFound());
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.instance").value("/users/" + randomId));
             }
 
+    @Test
+    void createUser_withTakenEmail_returnsConflict() throws Exception {
+        userRepository.save(new User(null, "Ada Lovelace", "ada@example.com"));
+
+        createUser(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Ada King\", \"email\": \"ada@example.com\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.detail").value("Email already registered: ada@example.com"));
+    }
+
+    @Test
+    void createUser_withExistingId_returnsConflictAndKeepsTheUser() throws Exception {
+        User ada = userRepository.save(new User(null, "Ada Lovelace", "ada@example.com"));
+
+        createUser(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\": \"" + ada.getId() + "\", \"name\": \"Mallory\", \"email\": \"mallory@example.com\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.detail").value("User already exists: " + ada.getId()));
+
+        mockMvc.perform(get("/users/{id}", ada.getId()))
+                .andExpect(jsonPath("$.name").value("Ada Lovelace"));
+    }
+
     @Test
     void getUsers_withNameParam_returnsFilteredUsers() throws Exception {
         User user1 = new User(null, "Joan", "joan@gmail.com");
         User user2 = new User(null, "María", "mawi@gmail.com");
 
-        mockMvc.perform(post("/users")
+        createUser(post("/users")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(user1)))
                 .andExpect(status().isCreated());
-        mockMvc.perform(post("/users")
+        createUser(post("/users")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(user2)))
                 .andExpect(status().isCreated());
@@ -111,4 +242,202 @@ class UserAcceptanceTest {
                 .andExpect(jsonPath("$[0].name").value("Joan"));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void autocomplete_returnsNamesByPrefixInOrder() throws Exception {
+        userRepository.save(new User(null, "Martina", "martina@gmail.com"));
+        userRepository.save(new User(null, "Marta", "marta@gmail.com"));
+        userRepository.save(new User(null, "Joan", "joan@gmail.com"));
+
+        mockMvc.perform(get("/users/autocomplete").param("prefix", "MAR").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Marta"))
+                .andExpect(jsonPath("$[0].id").exists())
+                .andExpect(jsonPath("$[0].email").doesNotExist())
+                .andExpect(jsonPath("$[1].name").value("Martina"));
+    }
+
+    @Test
+    void getUsers_withLimit_returnsPagesLinkedByCursor() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            createUser(post("/users")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new User(null, "User " + i, "user" + i + "@example.com"))))
+                    .andExpect(status().isCreated());
+        }
+
+        MvcResult first = mockMvc.perform(get("/users").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("User 0"))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn();
+
+        String cursor = first.getResponse().getHeader("X-Next-Cursor");
+        mockMvc.perform(get("/users").param("limit", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("User 2"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void getUsers_acceptingNdjson_streamsOneUserPerLine() throws Exception {
+        createUser(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new User(null, "Joan", "joan@gmail.com"))))
+                .andExpect(status().isCreated());
+        createUser(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new User(null, "María", "mawi@gmail.com"))))
+                .andExpect(status().isCreated());
+
+        MvcResult result = mockMvc.perform(get("/users").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Joan", objectMapper.readValue(lines[0], User.class).getName());
+        assertEquals("María", objectMapper.readValue(lines[1], User.class).getName());
+    }
+
+    @Test
+    void importUsers_withJsonArray_reportsPerItemResults() throws Exception {
+        createUser(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new User(null, "Joan", "joan@gmail.com"))))
+                .andExpect(status().isCreated());
+
+        String payload = """
+                [
+                  {"name": "Ada", "email": "ada@example.com"},
+                  {"name": "Ada again", "email": "ada@example.com"},
+                  {"name": "Joan twin", "email": "joan@gmail.com"},
+                  {"name": "", "email": "empty@example.com"}
+                ]
+                """;
+
+        mockMvc.perform(post("/users/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[0].user.id").exists())
+                .andExpect(jsonPath("$.items[1].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.items[2].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.items[3].status").value("INVALID"))
+                .andExpect(jsonPath("$.items[3].error").value("The name cannot be empty."));
+    }
+
+    @Test
+    void importUsers_withNdjson_createsEveryLine() throws Exception {
+        String payload = """
+                {"name": "Ada", "email": "ada@example.com"}
+                {"name": "Alan", "email": "alan@example.com"}
+                """;
+
+        mockMvc.perform(post("/users/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(payload))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2));
+
+        mockMvc.perform(get("/users"))
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void importUsers_withNullElement_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/users/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\": \"Ada\", \"email\": \"ada@example.com\"}, null]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importUsers_withMalformedPayload_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/users/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\": \"Ada\", "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importUsers_withSyntaxErrorAfterAFullBatch_reportsTheCommittedUsers() throws Exception {
+        StringBuilder payload = new StringBuilder("[");
+        for (int i = 0; i < 1001; i++) {
+            payload.append("{\"name\": \"User ").append(i).append("\", \"email\": \"bulk").append(i).append("@example.com\"},");
+        }
+        payload.append("{\"name\" \"Broken\"}]");
+
+        mockMvc.perform(post("/users/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload.toString()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.created").value(1001))
+                .andExpect(jsonPath("$.items.length()").value(1001))
+                .andExpect(jsonPath("$.stoppedAt").value(1001))
+                .andExpect(jsonPath("$.error").value(startsWith("Malformed bulk payload")));
+
+        assertEquals(1001, userRepository.findAll().size());
+    }
+
+    @Test
+    void users_negotiateCbor() throws Exception {
+        ObjectMapper cbor = cborConverter.getObjectMapper();
+        byte[] request = cbor.writeValueAsBytes(new User(null, "Ada Lovelace", "ada@example.com"));
+
+        byte[] created = createUser(post("/users")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(request))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        User user = cbor.readValue(created, User.class);
+        assertEquals("Ada Lovelace", user.getName());
+
+        byte[] list = mockMvc.perform(get("/users").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(List.of(user), cbor.readValue(list, cbor.getTypeFactory().constructCollectionType(List.class, User.class)));
+
+        mockMvc.perform(get("/users/{id}", user.getId()))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void importUsers_withSmileSequence_createsEveryValue() throws Exception {
+        ObjectMapper smile = smileConverter.getObjectMapper();
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (SequenceWriter writer = smile.writer().writeValues(payload)) {
+            writer.write(new UserRequest(null, "Ada", "ada@example.com"));
+            writer.write(new UserRequest(null, "Alan", "alan@example.com"));
+        }
+
+        mockMvc.perform(post("/users/bulk")
+                        .contentType("application/x-jackson-smile")
+                        .content(payload.toByteArray()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2));
+    }
+
+    /**
+     * Creating a user answers with a future, so the response is written by the async dispatch.
+     */
+    private ResultActions createUser(RequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+}
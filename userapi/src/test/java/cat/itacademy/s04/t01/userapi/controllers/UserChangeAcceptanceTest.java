@@ -0,0 +1,102 @@
+package cat.itacademy.s04.t01.userapi.controllers;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.repository.ChangeFeed;
+import cat.itacademy.s04.t01.userapi.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest(properties = "userapi.changes.capacity=8")
+@AutoConfigureMockMvc
+class UserChangeAcceptanceTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Test
+    void events_streamChangesFromTheRequestedSequence() throws Exception {
+        long start = changeFeed.head();
+        userRepository.save(new User(null, "Ada Lovelace", "ada-" + UUID.randomUUID() + "@example.com"));
+
+        MvcResult result = mockMvc.perform(get("/users/events").param("from", String.valueOf(start + 1)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        userRepository.save(new User(null, "Alan Turing", "alan-" + UUID.randomUUID() + "@example.com"));
+
+        String body = awaitContent(result, "Alan Turing");
+        assertTrue(body.contains("id:" + (start + 1)));
+        assertTrue(body.contains("event:SAVED"));
+        assertTrue(body.contains("Ada Lovelace"));
+    }
+
+    @Test
+    void events_resumeAfterLastEventId() throws Exception {
+        long start = changeFeed.head();
+        userRepository.save(new User(null, "Grace Hopper", "grace-" + UUID.randomUUID() + "@example.com"));
+        userRepository.save(new User(null, "Joan Clarke", "joan-" + UUID.randomUUID() + "@example.com"));
+
+        MvcResult result = mockMvc.perform(get("/users/events").header("Last-Event-ID", start + 1))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = awaitContent(result, "Joan Clarke");
+        assertFalse(body.contains("Grace Hopper"));
+    }
+
+    @Test
+    void events_sendResetWhenTheSequenceIsNoLongerRetained() throws Exception {
+        long start = changeFeed.head();
+        for (int i = 0; i < 10; i++) {
+            userRepository.save(new User(null, "User " + i, "reset-" + UUID.randomUUID() + "@example.com"));
+        }
+
+        MvcResult result = mockMvc.perform(get("/users/events").param("from", String.valueOf(start + 1)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertTrue(awaitContent(result, "event:" + UserChangeController.RESET_EVENT).contains("data:" + changeFeed.head()));
+    }
+
+    @Test
+    void events_fromZeroStartAtTheOldestRetainedChange() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            userRepository.save(new User(null, "Oldest " + i, "oldest-" + UUID.randomUUID() + "@example.com"));
+        }
+        long oldest = changeFeed.tail() + 1;
+
+        MvcResult result = mockMvc.perform(get("/users/events").param("from", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = awaitContent(result, "Oldest 9");
+        assertTrue(body.contains("id:" + oldest));
+        assertFalse(body.contains("event:" + UserChangeController.RESET_EVENT));
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        String body = result.getResponse().getContentAsString();
+        while (!body.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            body = result.getResponse().getContentAsString();
+        }
+        assertTrue(body.contains(expected), "Missing " + expected + " in " + body);
+        return body;
+    }
+}
@@ -0,0 +1,78 @@
+package cat.itacademy.s04.t01.userapi.controllers;
+
+import cat.itacademy.s04.t01.userapi.dto.CreateUserResult;
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.exceptions.WriteQueueFullException;
+import cat.itacademy.s04.t01.userapi.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "userapi.write-pipeline.enabled=true")
+@AutoConfigureMockMvc
+class WritePipelineAcceptanceTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoSpyBean
+    private UserService userService;
+
+    @Test
+    void createUser_throughThePipeline_returnsCreatedThenConflict() throws Exception {
+        String body = "{\"name\": \"Ada Lovelace\", \"email\": \"ada.pipeline@example.com\"}";
+
+        MvcResult created = createUser(body);
+        status().isCreated().match(created);
+        jsonPath("$.id").exists().match(created);
+
+        MvcResult duplicate = createUser(body);
+        status().isConflict().match(duplicate);
+        jsonPath("$.detail").value("Email already registered: ada.pipeline@example.com").match(duplicate);
+    }
+
+    @Test
+    void createUser_releasesTheRequestWhileTheWriteIsQueued() throws Exception {
+        CompletableFuture<CreateUserResult> queued = new CompletableFuture<>();
+        doReturn(queued).when(userService).registerUserAsync(any());
+
+        MvcResult pending = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Grace Hopper\", \"email\": \"grace.pipeline@example.com\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        queued.complete(new CreateUserResult.Created(new User(UUID.randomUUID(), "Grace Hopper", "grace.pipeline@example.com")));
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.name").value("Grace Hopper"));
+    }
+
+    @Test
+    void createUser_whenTheQueuedWriteFails_returnsTheExceptionStatus() throws Exception {
+        doReturn(CompletableFuture.failedFuture(new WriteQueueFullException(1))).when(userService).registerUserAsync(any());
+
+        MvcResult failed = createUser("{\"name\": \"Alan Turing\", \"email\": \"alan.pipeline@example.com\"}");
+
+        status().isServiceUnavailable().match(failed);
+    }
+
+    private MvcResult createUser(String body) throws Exception {
+        MvcResult started = mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started)).andReturn();
+    }
+}
@@ -0,0 +1,160 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.dto.Revision;
+import cat.itacademy.s04.t01.userapi.dto.VersionedUser;
+import cat.itacademy.s04.t01.userapi.entities.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingUserRepositoryTest {
+
+    @Mock
+    private UserRepository store;
+
+    private CachingUserRepository repository;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        repository = new CachingUserRepository(store, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        user = new User(UUID.randomUUID(), "Ada Lovelace", "ada@example.com");
+    }
+
+    @Test
+    @DisplayName("findById() - Should load once and serve repeats from the cache")
+    void testFindById_ReadThrough() {
+        when(store.findVersionedById(user.getId())).thenReturn(versioned(user));
+
+        repository.findById(user.getId());
+        Optional<User> second = repository.findById(user.getId());
+
+        assertEquals(Optional.of(user), second);
+        verify(store, times(1)).findVersionedById(user.getId());
+        assertEquals(1, repository.stats().hitCount());
+    }
+
+    @Test
+    @DisplayName("findVersionedById() - Should share cache entries with findById()")
+    void testFindVersionedById_ReadThrough() {
+        when(store.findVersionedById(user.getId())).thenReturn(versioned(user));
+
+        repository.findById(user.getId());
+        Optional<VersionedUser> second = repository.findVersionedById(user.getId());
+
+        assertEquals(versioned(user), second);
+        verify(store, times(1)).findVersionedById(user.getId());
+        assertEquals(1, repository.stats().hitCount());
+    }
+
+    @Test
+    @DisplayName("findById() - Should cache ids that do not exist")
+    void testFindById_NegativeCaching() {
+        UUID missing = UUID.randomUUID();
+        when(store.findVersionedById(missing)).thenReturn(Optional.empty());
+
+        repository.findById(missing);
+        repository.findById(missing);
+
+        verify(store, times(1)).findVersionedById(missing);
+    }
+
+    @Test
+    @DisplayName("save() - Should invalidate the cached entry, including a cached miss")
+    void testSave_Invalidates() {
+        when(store.findVersionedById(user.getId())).thenReturn(Optional.empty()).thenReturn(versioned(user));
+        when(store.insertIfEmailAbsent(user)).thenReturn(Optional.of(user));
+
+        assertTrue(repository.findById(user.getId()).isEmpty());
+        repository.insertIfEmailAbsent(user);
+
+        assertEquals(Optional.of(user), repository.findById(user.getId()));
+    }
+
+    @Test
+    @DisplayName("saveAll() - Should invalidate every stored user")
+    void testSaveAll_Invalidates() {
+        when(store.findVersionedById(user.getId())).thenReturn(Optional.empty()).thenReturn(versioned(user));
+        when(store.saveAll(List.of(user))).thenReturn(List.of(Optional.of(user)));
+
+        repository.findById(user.getId());
+        repository.saveAll(List.of(user));
+
+        assertTrue(repository.findById(user.getId()).isPresent());
+    }
+
+    @Test
+    @DisplayName("deleteAll() - Should empty the cache")
+    void testDeleteAll_ClearsCache() {
+        when(store.findVersionedById(user.getId())).thenReturn(versioned(user)).thenReturn(Optional.empty());
+
+        repository.findById(user.getId());
+        repository.deleteAll();
+
+        assertTrue(repository.findById(user.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("findAllById() - Should fetch only uncached ids, in one batch")
+    void testFindAllById_BatchesMisses() {
+        User other = new User(UUID.randomUUID(), "Alan Turing", "alan@example.com");
+        UUID missing = UUID.randomUUID();
+        when(store.findVersionedById(user.getId())).thenReturn(versioned(user));
+        when(store.findAllById(anyCollection())).thenReturn(List.of(other));
+        repository.findById(user.getId());
+
+        List<User> found = repository.findAllById(List.of(missing, other.getId(), user.getId()));
+
+        assertEquals(List.of(other, user), found);
+        verify(store).findAllById(argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(missing, other.getId()))));
+        verifyNoMoreInteractions(store);
+    }
+
+    @Test
+    @DisplayName("findAllById() - Should not cache a batch result that a concurrent insert made stale")
+    void testFindAllById_DoesNotCacheStaleBatch() throws Exception {
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch inserted = new CountDownLatch(1);
+        when(store.findAllById(anyCollection())).thenAnswer(invocation -> {
+            fetching.countDown();
+            inserted.await();
+            return List.of();
+        });
+        when(store.insertIfEmailAbsent(user)).thenReturn(Optional.of(user));
+        when(store.findVersionedById(user.getId())).thenReturn(versioned(user));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<User>> batch = executor.submit(() -> repository.findAllById(List.of(user.getId())));
+            fetching.await();
+            repository.insertIfEmailAbsent(user);
+            inserted.countDown();
+
+            assertEquals(List.of(), batch.get(5, TimeUnit.SECONDS));
+            assertEquals(Optional.of(user), repository.findById(user.getId()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Optional<VersionedUser> versioned(User user) {
+        return Optional.of(new VersionedUser(user, new Revision(1, 1)));
+    }
+}
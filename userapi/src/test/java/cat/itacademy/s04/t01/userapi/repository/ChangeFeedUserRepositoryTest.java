@@ -0,0 +1,73 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.dto.UserChange;
+import cat.itacademy.s04.t01.userapi.entities.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedUserRepositoryTest {
+
+    private ChangeFeed feed;
+    private ChangeFeedUserRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        feed = new ChangeFeed(4);
+        repository = new ChangeFeedUserRepository(new InMemoryUserRepository(), feed);
+    }
+
+    @Test
+    @DisplayName("Writes - Should publish applied writes in order and skip rejected ones")
+    void testWrites_PublishedInOrder() throws InterruptedException {
+        User ada = repository.save(new User(null, "Ada", "ada@example.com"));
+        repository.saveAll(List.of(
+                new User(null, "Alan", "alan@example.com"),
+                new User(null, "Ada Twin", "ada@example.com")));
+        assertTrue(repository.insertIfEmailAbsent(new User(null, "Ada Again", "ada@example.com")).isEmpty());
+        repository.deleteAll();
+
+        List<UserChange> changes = feed.read(0, 10, 0, TimeUnit.MILLISECONDS);
+
+        assertEquals(List.of(1L, 2L, 3L), changes.stream().map(UserChange::sequence).toList());
+        assertEquals(ada, changes.get(0).user());
+        assertEquals("Alan", changes.get(1).user().getName());
+        assertEquals(UserChange.Type.CLEARED, changes.get(2).type());
+        assertNull(changes.get(2).user());
+    }
+
+    @Test
+    @DisplayName("read() - Should wait for the next change and report overwritten ones as null")
+    void testRead_WaitsAndOverflows() throws InterruptedException {
+        assertTrue(feed.read(0, 10, 10, TimeUnit.MILLISECONDS).isEmpty());
+
+        for (int i = 0; i < 6; i++) {
+            repository.save(new User(UUID.randomUUID(), "User " + i, "user" + i + "@example.com"));
+        }
+
+        assertEquals(6, feed.head());
+        assertNull(feed.read(1, 10, 0, TimeUnit.MILLISECONDS));
+        assertEquals(4, feed.read(2, 10, 0, TimeUnit.MILLISECONDS).size());
+        assertNull(feed.read(7, 10, 0, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("tail() - Should point just before the oldest retained change")
+    void testTail_OldestRetained() throws InterruptedException {
+        assertEquals(0, feed.tail());
+
+        for (int i = 0; i < 6; i++) {
+            repository.save(new User(UUID.randomUUID(), "User " + i, "user" + i + "@example.com"));
+        }
+
+        assertEquals(2, feed.tail());
+        assertEquals(List.of(3L, 4L, 5L, 6L),
+                feed.read(feed.tail(), 10, 0, TimeUnit.MILLISECONDS).stream().map(UserChange::sequence).toList());
+    }
+}
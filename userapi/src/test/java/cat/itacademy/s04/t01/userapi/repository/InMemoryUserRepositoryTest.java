@@ -1,13 +1,22 @@
 package cat.itacademy.s04.t01.userapi.repository;
 
+import cat.itacademy.s04.t01.userapi.dto.Revision;
+import cat.itacademy.s04.t01.userapi.dto.UserPage;
+import cat.itacademy.s04.t01.userapi.dto.VersionedUser;
 import cat.itacademy.s04.t01.userapi.entities.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -308,6 +317,220 @@ class InMemoryUserRepositoryTest {
         assertFalse(existsSubstring);
     }
 
+    @Test
+    @DisplayName("save() - Should assign an id to a copy and leave the input untouched")
+    void testSave_AssignsIdToCopy() {
+        User withoutId = new User(null, "No Id", "noid@example.com");
+
+        User saved = repository.save(withoutId);
+
+        assertNull(withoutId.getId());
+        assertNotNull(saved.getId());
+        assertEquals(saved, repository.findById(saved.getId()).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("save() - Should replace user when id already exists")
+    void testSave_SameIdReplaces() {
+        repository.save(user1);
+        User updated = new User(user1.getId(), "John Updated", "john@example.com");
+
+        repository.save(updated);
+
+        assertEquals(1, repository.findAll().size());
+        assertEquals("John Updated", repository.findById(user1.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    @DisplayName("save() - Should keep every user under concurrent saves")
+    void testSave_Concurrent() throws InterruptedException {
+        int threads = 8;
+        int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int offset = t * perThread;
+            executor.submit(() -> {
+                for (int i = offset; i < offset + perThread; i++) {
+                    repository.save(new User(null, "User " + i, "user" + i + "@example.com"));
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(threads * perThread, repository.findAll().size());
+    }
+
+    @Test
+    @DisplayName("findAll() - Should return a snapshot in insertion order")
+    void testFindAll_SnapshotInInsertionOrder() {
+        repository.save(user1);
+        repository.save(user2);
+
+        List<User> users = repository.findAll();
+        repository.save(user3);
+
+        assertEquals(List.of(user1, user2), users);
+    }
+
+    @Test
+    @DisplayName("deleteAll() - Should remove every user")
+    void testDeleteAll() {
+        repository.save(user1);
+        repository.save(user2);
+
+        repository.deleteAll();
+
+        assertTrue(repository.findAll().isEmpty());
+        assertTrue(repository.findById(user1.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("existsByEmail() - Should ignore domain case and surrounding spaces")
+    void testExistsByEmail_NormalizedDomain() {
+        repository.save(user1);
+
+        assertTrue(repository.existsByEmail("john@EXAMPLE.com"));
+        assertTrue(repository.existsByEmail(" john@example.com "));
+    }
+
+    @Test
+    @DisplayName("existsByEmail() - Should forget the old email when a user is replaced")
+    void testExistsByEmail_AfterEmailChange() {
+        repository.save(user1);
+        repository.save(new User(user1.getId(), "John Doe", "johnny@example.com"));
+
+        assertFalse(repository.existsByEmail("john@example.com"));
+        assertTrue(repository.existsByEmail("johnny@example.com"));
+    }
+
+    @Test
+    @DisplayName("insertIfEmailAbsent() - Should store user when email is free")
+    void testInsertIfEmailAbsent_Success() {
+        Optional<User> result = repository.insertIfEmailAbsent(new User(null, "John Doe", "john@example.com"));
+
+        assertTrue(result.isPresent());
+        assertNotNull(result.get().getId());
+        assertEquals(1, repository.findAll().size());
+    }
+
+    @Test
+    @DisplayName("insertIfEmailAbsent() - Should reject an email that is already registered")
+    void testInsertIfEmailAbsent_Duplicate() {
+        repository.save(user1);
+
+        Optional<User> result = repository.insertIfEmailAbsent(new User(null, "Other John", "john@Example.com"));
+
+        assertTrue(result.isEmpty());
+        assertEquals(1, repository.findAll().size());
+    }
+
+    @Test
+    @DisplayName("insertIfEmailAbsent() - Should accept only one of many concurrent signups")
+    void testInsertIfEmailAbsent_Concurrent() throws InterruptedException {
+        int threads = 16;
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                repository.insertIfEmailAbsent(new User(null, "Same", "same@example.com"))
+                        .ifPresent(u -> accepted.incrementAndGet());
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1, accepted.get());
+        assertEquals(1, repository.findAll().size());
+    }
+
+    @Test
+    @DisplayName("saveAll() - Should skip emails already stored or repeated in the batch")
+    void testSaveAll_Deduplicates() {
+        repository.save(user1);
+
+        List<Optional<User>> results = repository.saveAll(List.of(
+                user2,
+                new User(null, "Jane Twin", "jane@example.com"),
+                new User(null, "John Twin", "john@example.com")));
+
+        assertEquals(List.of(Optional.of(user2), Optional.empty(), Optional.empty()), results);
+        assertEquals(2, repository.findAll().size());
+    }
+
+    @Test
+    @DisplayName("findByNamePrefix() - Should return users whose name starts with the prefix, in name order")
+    void testFindByNamePrefix() {
+        repository.save(user3);
+        repository.save(user1);
+        repository.save(user2);
+
+        assertEquals(List.of(user2, user1, user3), repository.findByNamePrefix("J", 10));
+        assertEquals(List.of(user1), repository.findByNamePrefix("john", 1));
+        assertTrue(repository.findByNamePrefix("doe", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("findPage() - Should walk users in creation order with a cursor")
+    void testFindPage_Cursor() {
+        repository.save(user1);
+        repository.save(user2);
+        repository.save(user3);
+
+        UserPage first = repository.findPage(null, null, 2);
+        UserPage second = repository.findPage(null, first.nextCursor(), 2);
+
+        assertEquals(List.of(user1, user2), first.users());
+        assertNotNull(first.nextCursor());
+        assertEquals(List.of(user3), second.users());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    @DisplayName("findPage() - Should page name matches")
+    void testFindPage_ByName() {
+        repository.save(user1);
+        repository.save(user2);
+        repository.save(user3);
+
+        UserPage first = repository.findPage("john", null, 1);
+        UserPage second = repository.findPage("john", first.nextCursor(), 1);
+
+        assertEquals(List.of(user1), first.users());
+        assertEquals(List.of(user3), second.users());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    @DisplayName("findPage() - Should reject a non-positive limit")
+    void testFindPage_InvalidLimit() {
+        assertThrows(IllegalArgumentException.class, () -> repository.findPage(null, null, 0));
+    }
+
+    @Test
+    @DisplayName("revision() - Should move with every write and tag each user with its own version")
+    void testRevision_ChangesOnWrite() {
+        Revision empty = repository.revision();
+        repository.save(user1);
+        Revision afterFirst = repository.revision();
+        repository.save(user2);
+
+        assertNotEquals(empty.etag(), afterFirst.etag());
+        assertNotEquals(afterFirst.etag(), repository.revision().etag());
+
+        Revision user1Revision = repository.findVersionedById(user1.getId()).orElseThrow().revision();
+        assertEquals(user1Revision, repository.findVersionedById(user1.getId()).orElseThrow().revision());
+        repository.save(new User(user1.getId(), "John Updated", "john@example.com"));
+        VersionedUser updated = repository.findVersionedById(user1.getId()).orElseThrow();
+        assertEquals("John Updated", updated.user().getName());
+        assertTrue(updated.revision().version() > user1Revision.version());
+        assertTrue(repository.findVersionedById(UUID.randomUUID()).isEmpty());
+    }
+
     @Test
     @DisplayName("Integration - Should handle complete workflow")
     void testIntegration_CompleteWorkflow() {
@@ -322,4 +545,42 @@ class InMemoryUserRepositoryTest {
         assertTrue(repository.existsByEmail("john@example.com"));
         assertFalse(repository.existsByEmail("notfound@example.com"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("findAllById() - Should return known users in request order and skip unknown ids")
+    void testFindAllById() {
+        repository.save(user1);
+        repository.save(user2);
+        repository.save(user3);
+
+        assertEquals(List.of(user3, user1), repository.findAllById(List.of(user3.getId(), UUID.randomUUID(), user1.getId())));
+        assertTrue(repository.findAllById(List.of()).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> repository.findAllById(Arrays.asList(user1.getId(), null)));
+    }
+
+    @Test
+    @DisplayName("insertIfEmailAbsent() - Should not replace a user whose id already exists")
+    void testInsertIfEmailAbsent_ExistingId() {
+        repository.save(user1);
+        User takeover = new User(user1.getId(), "Mallory", "mallory@example.com");
+
+        assertTrue(repository.insertIfEmailAbsent(takeover).isEmpty());
+        assertTrue(repository.saveAll(List.of(takeover)).getFirst().isEmpty());
+
+        assertEquals(Optional.of(user1), repository.findById(user1.getId()));
+        assertFalse(repository.existsByEmail("mallory@example.com"));
+        assertTrue(repository.insertIfEmailAbsent(new User(null, "Mallory", "mallory@example.com")).isPresent());
+    }
+
+    @Test
+    @DisplayName("save() - Should refuse an email owned by another user")
+    void testSave_EmailOwnedByAnotherUser() {
+        repository.save(user1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.save(new User(user2.getId(), "Jane Smith", "john@example.com")));
+
+        assertEquals(Optional.of(user1), repository.findById(user1.getId()));
+        assertTrue(repository.findById(user2.getId()).isEmpty());
+    }
+}
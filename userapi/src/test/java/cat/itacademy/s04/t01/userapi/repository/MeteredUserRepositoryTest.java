@@ -0,0 +1,73 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MeteredUserRepositoryTest {
+
+    private SimpleMeterRegistry registry;
+    private MeteredUserRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        repository = new MeteredUserRepository(new InMemoryUserRepository(), registry);
+    }
+
+    @Test
+    @DisplayName("findById() - Should time the call and count hits and misses")
+    void testFindById_Metrics() {
+        User user = repository.save(new User(null, "Ada Lovelace", "ada@example.com"));
+
+        repository.findById(user.getId());
+        repository.findById(UUID.randomUUID());
+
+        assertEquals(2, registry.get("userapi.repository.operations").tag("operation", "findById").timer().count());
+        assertEquals(1, registry.get("userapi.repository.index.lookups").tags("index", "id", "result", "hit").counter().count());
+        assertEquals(1, registry.get("userapi.repository.index.lookups").tags("index", "id", "result", "miss").counter().count());
+    }
+
+    @Test
+    @DisplayName("insertIfEmailAbsent() - Should count duplicate email rejections")
+    void testDuplicateEmails_Counted() {
+        repository.insertIfEmailAbsent(new User(null, "Ada", "ada@example.com"));
+        repository.insertIfEmailAbsent(new User(null, "Ada twin", "ada@example.com"));
+        repository.saveAll(List.of(new User(null, "Ada triplet", "ada@example.com")));
+
+        assertEquals(2, registry.get("userapi.repository.duplicate.emails").counter().count());
+        assertEquals(0, registry.get("userapi.repository.duplicate.ids").counter().count());
+    }
+
+    @Test
+    @DisplayName("insertIfEmailAbsent() - Should count taken id rejections apart from duplicate emails")
+    void testDuplicateIds_Counted() {
+        User ada = repository.save(new User(null, "Ada", "ada@example.com"));
+
+        repository.insertIfEmailAbsent(new User(ada.getId(), "Ada King", "king@example.com"));
+        repository.saveAll(List.of(
+                new User(ada.getId(), "Ada again", "again@example.com"),
+                new User(null, "Ada twin", "ada@example.com")));
+
+        assertEquals(2, registry.get("userapi.repository.duplicate.ids").counter().count());
+        assertEquals(1, registry.get("userapi.repository.duplicate.emails").counter().count());
+    }
+
+    @Test
+    @DisplayName("searchByName() - Should record the result size")
+    void testSearch_ResultSize() {
+        repository.save(new User(null, "Ada Lovelace", "ada@example.com"));
+        repository.save(new User(null, "Alan Turing", "alan@example.com"));
+
+        repository.searchByName("a");
+
+        assertEquals(2, registry.get("userapi.repository.results").tag("operation", "searchByName").summary().totalAmount());
+    }
+}
@@ -0,0 +1,89 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameIndexTest {
+
+    private NameIndex index;
+    private UUID ada;
+    private UUID alan;
+
+    @BeforeEach
+    void setUp() {
+        index = new NameIndex();
+        ada = UUID.randomUUID();
+        alan = UUID.randomUUID();
+        index.put(ada, "Ada Lovelace");
+        index.put(alan, "Alan Turing");
+    }
+
+    @Test
+    @DisplayName("search() - Should find ids by trigram-indexed substring")
+    void testSearch_LongQuery() {
+        assertEquals(List.of(ada), index.search("LOVE"));
+        assertEquals(List.of(alan), index.search("turing"));
+    }
+
+    @Test
+    @DisplayName("search() - Should scan for queries shorter than a trigram")
+    void testSearch_ShortQuery() {
+        assertEquals(Set.of(ada, alan), Set.copyOf(index.search("a")));
+        assertEquals(List.of(alan), index.search("Tu"));
+    }
+
+    @Test
+    @DisplayName("search() - Should not match when trigrams are not contiguous")
+    void testSearch_VerifiesCandidates() {
+        index.put(ada, "abcxbcd");
+
+        assertTrue(index.search("abcd").isEmpty());
+    }
+
+    @Test
+    @DisplayName("put() - Should drop trigrams of the previous name")
+    void testPut_Rename() {
+        index.put(ada, "Grace Hopper");
+
+        assertTrue(index.search("lovelace").isEmpty());
+        assertEquals(List.of(ada), index.search("hopper"));
+    }
+
+    @Test
+    @DisplayName("remove() - Should remove the id from every result")
+    void testRemove() {
+        index.remove(alan);
+
+        assertTrue(index.search("alan").isEmpty());
+        assertEquals(List.of(ada), index.search("a"));
+    }
+
+    @Test
+    @DisplayName("complete() - Should return ids by name prefix in name order, up to the limit")
+    void testComplete() {
+        UUID alice = UUID.randomUUID();
+        index.put(alice, "alice Smith");
+
+        assertEquals(List.of(ada, alan, alice), index.complete("A", 10));
+        assertEquals(List.of(ada, alan), index.complete("a", 2));
+        assertEquals(List.of(alan, alice), index.complete("al", 10));
+        assertTrue(index.complete("b", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("complete() - Should follow renames and removals")
+    void testComplete_AfterRenameAndRemove() {
+        index.put(ada, "Grace Hopper");
+        index.remove(alan);
+
+        assertTrue(index.complete("a", 10).isEmpty());
+        assertEquals(List.of(ada), index.complete("gra", 10));
+    }
+}
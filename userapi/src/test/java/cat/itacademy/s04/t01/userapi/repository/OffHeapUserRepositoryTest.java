@@ -0,0 +1,231 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.dto.Revision;
+import cat.itacademy.s04.t01.userapi.dto.UserPage;
+import cat.itacademy.s04.t01.userapi.entities.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapUserRepositoryTest {
+
+    private OffHeapUserRepository repository;
+    private User user1;
+    private User user2;
+    private User user3;
+
+    @BeforeEach
+    void setUp() {
+        repository = new OffHeapUserRepository();
+
+        user1 = new User(UUID.randomUUID(), "John Doe", "john@example.com");
+        user2 = new User(UUID.randomUUID(), "Jane Smith", "jane@example.com");
+        user3 = new User(UUID.randomUUID(), "Jöhn Williams", "jwilliams@example.com");
+    }
+
+    @Test
+    @DisplayName("save() - Should store users and read them back in insertion order")
+    void testSave_FindAllInOrder() {
+        repository.save(user1);
+        repository.save(user2);
+        repository.save(user3);
+
+        assertEquals(List.of(user1, user2, user3), repository.findAll());
+        assertEquals(Optional.of(user3), repository.findById(user3.getId()));
+        assertTrue(repository.findById(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("save() - Should throw exception when user is null")
+    void testSave_NullUser() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> repository.save(null)
+        );
+
+        assertEquals("The user cannot be null.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("save() - Should replace a user saved again with the same id")
+    void testSave_SameIdReplaces() {
+        repository.save(user1);
+        repository.save(user2);
+        User renamed = new User(user1.getId(), "Johnny Doe", "johnny@example.com");
+
+        repository.save(renamed);
+
+        assertEquals(List.of(renamed, user2), repository.findAll());
+        assertFalse(repository.existsByEmail("john@example.com"));
+        assertTrue(repository.existsByEmail("johnny@example.com"));
+        assertEquals(List.of(renamed), repository.searchByName("johnny"));
+    }
+
+    @Test
+    @DisplayName("searchByName() - Should match substrings ignoring case, including non-ASCII names")
+    void testSearchByName() {
+        repository.save(user1);
+        repository.save(user2);
+        repository.save(user3);
+
+        assertEquals(List.of(user1), repository.searchByName("DOE"));
+        assertEquals(List.of(user3), repository.searchByName("jöhn"));
+        assertEquals(3, repository.searchByName(" ").size());
+        assertTrue(repository.searchByName("xyz").isEmpty());
+    }
+
+    @Test
+    @DisplayName("existsByEmail() - Should ignore the case of the domain only")
+    void testExistsByEmail_NormalizedDomain() {
+        repository.save(user1);
+
+        assertTrue(repository.existsByEmail("john@EXAMPLE.com"));
+        assertFalse(repository.existsByEmail("JOHN@example.com"));
+    }
+
+    @Test
+    @DisplayName("saveAll() - Should keep the first user of each email")
+    void testSaveAll_Deduplicates() {
+        User duplicate = new User(null, "Other John", "john@Example.com");
+
+        List<Optional<User>> results = repository.saveAll(List.of(user1, user2, duplicate));
+
+        assertEquals(Optional.of(user1), results.get(0));
+        assertEquals(Optional.of(user2), results.get(1));
+        assertTrue(results.get(2).isEmpty());
+        assertEquals(2, repository.findAll().size());
+    }
+
+    @Test
+    @DisplayName("findPage() - Should walk every user once through cursors")
+    void testFindPage_Cursor() {
+        List<User> saved = new ArrayList<>();
+        IntStream.range(0, 25).forEach(i -> saved.add(repository.save(new User(null, "User " + i, "user" + i + "@example.com"))));
+
+        List<User> seen = new ArrayList<>();
+        Long cursor = null;
+        do {
+            UserPage page = repository.findPage(null, cursor, 10);
+            seen.addAll(page.users());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(saved, seen);
+        UserPage first = repository.findPage("user 1", null, 6);
+        UserPage second = repository.findPage("user 1", first.nextCursor(), 6);
+        assertEquals(6, first.users().size());
+        assertEquals(5, second.users().size());
+        assertNull(second.nextCursor());
+        assertThrows(IllegalArgumentException.class, () -> repository.findPage(null, null, 0));
+    }
+
+    @Test
+    @DisplayName("findPage() - Should treat a negative cursor as the start of the listing")
+    void testFindPage_NegativeCursor() {
+        repository.save(user1);
+        repository.save(user2);
+
+        assertEquals(List.of(user1, user2), repository.findPage(null, -5L, 10).users());
+    }
+
+    @Test
+    @DisplayName("Index growth - Should find every user after the tables resize")
+    void testIndexesResize() {
+        List<User> saved = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            saved.add(repository.save(new User(null, "User " + i, "user" + i + "@example.com")));
+        }
+
+        for (User user : saved) {
+            assertEquals(Optional.of(user), repository.findById(user.getId()));
+            assertTrue(repository.existsByEmail(user.getEmail()));
+        }
+    }
+
+    @Test
+    @DisplayName("streamAll() and deleteAll() - Should stream every user and then clear the store")
+    void testStreamAllAndDeleteAll() {
+        repository.save(user1);
+        repository.save(user2);
+
+        assertEquals(List.of(user1, user2), repository.streamAll().toList());
+
+        repository.deleteAll();
+
+        assertTrue(repository.findAll().isEmpty());
+        assertFalse(repository.existsByEmail(user1.getEmail()));
+        assertTrue(repository.insertIfEmailAbsent(user1).isPresent());
+    }
+
+    @Test
+    @DisplayName("findByNamePrefix() - Should return the first matches in name order")
+    void testFindByNamePrefix() {
+        repository.save(user1);
+        repository.save(user2);
+        repository.save(user3);
+        User jo = repository.save(new User(null, "jo", "jo@example.com"));
+
+        assertEquals(List.of(user2, jo, user1), repository.findByNamePrefix("J", 3));
+        assertEquals(List.of(user3), repository.findByNamePrefix("JÖ", 10));
+    }
+
+    @Test
+    @DisplayName("revision() - Should move with every write, including deleteAll()")
+    void testRevision_ChangesOnWrite() {
+        repository.save(user1);
+        Revision saved = repository.findVersionedById(user1.getId()).orElseThrow().revision();
+        Revision store = repository.revision();
+
+        repository.save(user2);
+        assertEquals(saved, repository.findVersionedById(user1.getId()).orElseThrow().revision());
+        assertNotEquals(store.etag(), repository.revision().etag());
+
+        Revision beforeClear = repository.revision();
+        repository.deleteAll();
+        assertTrue(repository.findVersionedById(user1.getId()).isEmpty());
+        assertNotEquals(beforeClear.etag(), repository.revision().etag());
+    }
+
+    @Test
+    @DisplayName("findAllById() - Should return known users in request order and skip unknown ids")
+    void testFindAllById() {
+        repository.save(user1);
+        repository.save(user2);
+
+        assertEquals(List.of(user2, user1), repository.findAllById(List.of(user2.getId(), UUID.randomUUID(), user1.getId())));
+    }
+
+    @Test
+    @DisplayName("insertIfEmailAbsent() - Should not replace a user whose id already exists")
+    void testInsertIfEmailAbsent_ExistingId() {
+        repository.save(user1);
+        User takeover = new User(user1.getId(), "Mallory", "mallory@example.com");
+
+        assertTrue(repository.insertIfEmailAbsent(takeover).isEmpty());
+        assertTrue(repository.saveAll(List.of(takeover)).getFirst().isEmpty());
+
+        assertEquals(Optional.of(user1), repository.findById(user1.getId()));
+        assertFalse(repository.existsByEmail("mallory@example.com"));
+        assertTrue(repository.insertIfEmailAbsent(new User(null, "Mallory", "mallory@example.com")).isPresent());
+    }
+
+    @Test
+    @DisplayName("save() - Should refuse an email owned by another user")
+    void testSave_EmailOwnedByAnotherUser() {
+        repository.save(user1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.save(new User(user2.getId(), "Jane Smith", "john@example.com")));
+
+        assertEquals(Optional.of(user1), repository.findById(user1.getId()));
+        assertTrue(repository.findById(user2.getId()).isEmpty());
+    }
+}
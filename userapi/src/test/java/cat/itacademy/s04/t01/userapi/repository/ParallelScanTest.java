@@ -0,0 +1,101 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelScanTest {
+
+    private final ParallelScan scan = ParallelScan.withParallelism(4, 100);
+
+    @AfterEach
+    void tearDown() {
+        scan.close();
+    }
+
+    @Test
+    @DisplayName("filter() - Should keep the encounter order of an ordered source")
+    void testFilter_Ordered() {
+        List<Integer> expected = IntStream.range(0, 10_000).filter(i -> i % 7 == 0).boxed().toList();
+
+        List<Integer> matches = scan.filter(IntStream.range(0, 10_000).boxed().spliterator(), i -> i % 7 == 0);
+
+        assertEquals(expected, matches);
+    }
+
+    @Test
+    @DisplayName("filterRange() - Should return the matching indexes in ascending order")
+    void testFilterRange_Ordered() {
+        int[] expected = IntStream.range(0, 10_000).filter(i -> i % 7 == 0).toArray();
+
+        assertArrayEquals(expected, scan.filterRange(10_000, i -> i % 7 == 0));
+        assertArrayEquals(expected, ParallelScan.sequential().filterRange(10_000, i -> i % 7 == 0));
+        assertEquals(0, scan.filterRange(0, i -> true).length);
+    }
+
+    @Test
+    @DisplayName("filter() - Should find the same elements as a sequential scan of a concurrent map")
+    void testFilter_ConcurrentMap() {
+        Map<UUID, String> names = new ConcurrentHashMap<>();
+        IntStream.range(0, 5_000).forEach(i -> names.put(UUID.randomUUID(), "user " + i));
+        Set<UUID> expected = names.entrySet().stream()
+                .filter(entry -> entry.getValue().contains("42"))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+
+        List<Map.Entry<UUID, String>> matches = scan.filter(names.entrySet().spliterator(), entry -> entry.getValue().contains("42"));
+
+        assertEquals(expected.size(), matches.size());
+        assertEquals(expected, matches.stream().map(Map.Entry::getKey).collect(Collectors.toSet()));
+    }
+
+    @Test
+    @DisplayName("filter() - Should run small sources on the calling thread")
+    void testFilter_BelowThreshold() {
+        Thread caller = Thread.currentThread();
+
+        List<Integer> matches = scan.filter(IntStream.range(0, 50).boxed().spliterator(), i -> Thread.currentThread() == caller);
+
+        assertEquals(50, matches.size());
+    }
+
+    @Test
+    @DisplayName("map() - Should query the sources off the common pool and keep their order")
+    void testMap_OffCommonPool() {
+        Integer[] sources = IntStream.range(0, 8).boxed().toArray(Integer[]::new);
+
+        List<String> threads = scan.map(sources, i -> Thread.currentThread().getName());
+        List<Integer> results = scan.map(sources, i -> i * 2);
+
+        assertEquals(IntStream.range(0, 8).map(i -> i * 2).boxed().toList(), results);
+        assertTrue(threads.stream().noneMatch(name -> name.startsWith("ForkJoinPool.commonPool")));
+        assertTrue(threads.subList(0, 7).stream().allMatch(name -> name.startsWith("user-search-")));
+        assertEquals(Thread.currentThread().getName(), threads.get(7));
+    }
+
+    @Test
+    @DisplayName("map() - Should query every source on the calling thread when sequential")
+    void testMap_Sequential() {
+        Thread caller = Thread.currentThread();
+
+        List<Boolean> onCaller = ParallelScan.sequential().map(new Integer[]{1, 2, 3}, i -> Thread.currentThread() == caller);
+
+        assertEquals(List.of(true, true, true), onCaller);
+    }
+
+    @Test
+    @DisplayName("withParallelism() - Should reject a non-positive parallelism")
+    void testWithParallelism_Invalid() {
+        assertThrows(IllegalArgumentException.class, () -> ParallelScan.withParallelism(0, 100));
+    }
+}
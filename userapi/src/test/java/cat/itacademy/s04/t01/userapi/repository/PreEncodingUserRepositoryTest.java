@@ -0,0 +1,60 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PreEncodingUserRepositoryTest {
+
+    private final ObjectWriter writer = new ObjectMapper().writerFor(User.class);
+    private InMemoryUserRepository store;
+    private UserJsonCache cache;
+    private PreEncodingUserRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryUserRepository();
+        cache = new UserJsonCache(writer);
+        repository = new PreEncodingUserRepository(store, cache);
+    }
+
+    @Test
+    @DisplayName("save() - Should encode the user once and serve the same bytes afterwards")
+    void testSave_EncodesOnce() throws Exception {
+        User saved = repository.save(new User(null, "Ada Lovelace", "ada@example.com"));
+
+        assertEquals(1, cache.size());
+        byte[] json = cache.json(saved);
+        assertArrayEquals(writer.writeValueAsBytes(saved), json);
+        assertSame(json, cache.json(repository.findById(saved.getId()).orElseThrow()));
+    }
+
+    @Test
+    @DisplayName("json() - Should re-encode a user changed behind the cache's back")
+    void testJson_StaleEntryReEncoded() throws Exception {
+        User saved = repository.save(new User(null, "Ada Lovelace", "ada@example.com"));
+        User renamed = store.save(new User(saved.getId(), "Ada King", "ada@example.com"));
+
+        assertArrayEquals(writer.writeValueAsBytes(renamed), cache.json(renamed));
+    }
+
+    @Test
+    @DisplayName("saveAll()/deleteAll() - Should encode inserted users only and clear on delete")
+    void testSaveAllAndDeleteAll() {
+        repository.saveAll(List.of(
+                new User(UUID.randomUUID(), "Ada", "ada@example.com"),
+                new User(UUID.randomUUID(), "Ada Again", "ada@example.com")));
+        assertEquals(1, cache.size());
+
+        repository.deleteAll();
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,70 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+class ReactiveUserRepositoryAdapterTest {
+
+    private InMemoryUserRepository store;
+    private ReactiveUserRepositoryAdapter repository;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryUserRepository();
+        repository = new ReactiveUserRepositoryAdapter(store, Schedulers.boundedElastic());
+    }
+
+    @Test
+    @DisplayName("insertIfEmailAbsent() - Should emit the stored user, then nothing for a duplicate email")
+    void testInsertIfEmailAbsent() {
+        User user = new User(null, "Ada Lovelace", "ada@example.com");
+
+        StepVerifier.create(repository.insertIfEmailAbsent(user))
+                .expectNextMatches(stored -> stored.getId() != null && stored.getEmail().equals("ada@example.com"))
+                .verifyComplete();
+        StepVerifier.create(repository.insertIfEmailAbsent(new User(null, "Other", "ada@example.com")))
+                .verifyComplete();
+        StepVerifier.create(repository.existsByEmail("ada@example.com"))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("findById() - Should complete empty for an unknown id")
+    void testFindById_Missing() {
+        StepVerifier.create(repository.findById(UUID.randomUUID()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("findAll() - Should emit users in creation order as they are requested")
+    void testFindAll_Backpressure() {
+        IntStream.range(0, 10).forEach(i -> store.save(new User(null, "User " + i, "user" + i + "@example.com")));
+
+        StepVerifier.create(repository.findAll(), 3)
+                .expectNextMatches(user -> user.getName().equals("User 0"))
+                .expectNextCount(2)
+                .thenRequest(7)
+                .expectNextCount(6)
+                .expectNextMatches(user -> user.getName().equals("User 9"))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("searchByName() - Should emit only the matching users")
+    void testSearchByName() {
+        store.save(new User(null, "John Doe", "john@example.com"));
+        store.save(new User(null, "Jane Smith", "jane@example.com"));
+
+        StepVerifier.create(repository.searchByName("JOHN"))
+                .expectNextMatches(user -> user.getName().equals("John Doe"))
+                .verifyComplete();
+    }
+}
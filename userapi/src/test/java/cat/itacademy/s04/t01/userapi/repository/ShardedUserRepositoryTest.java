@@ -0,0 +1,197 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.dto.Revision;
+import cat.itacademy.s04.t01.userapi.dto.UserPage;
+import cat.itacademy.s04.t01.userapi.entities.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedUserRepositoryTest {
+
+    private ShardedUserRepository repository;
+    private List<User> saved;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ShardedUserRepository(8);
+        saved = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            saved.add(repository.save(new User(null, "User " + i, "user" + i + "@example.com")));
+        }
+    }
+
+    @Test
+    @DisplayName("findAll() and streamAll() - Should merge the shards in creation order")
+    void testFindAll_GlobalOrder() {
+        assertEquals(saved, repository.findAll());
+        assertEquals(saved, repository.streamAll().toList());
+    }
+
+    @Test
+    @DisplayName("findById() and existsByEmail() - Should route to the owning shard")
+    void testLookups() {
+        for (User user : saved) {
+            assertEquals(Optional.of(user), repository.findById(user.getId()));
+            assertTrue(repository.existsByEmail(user.getEmail().replace("example", "EXAMPLE")));
+        }
+        assertTrue(repository.findById(UUID.randomUUID()).isEmpty());
+        assertFalse(repository.existsByEmail("nobody@example.com"));
+    }
+
+    @Test
+    @DisplayName("findAllById() - Should collect users across shards in request order")
+    void testFindAllById() {
+        List<User> reversed = saved.reversed();
+        List<UUID> ids = new ArrayList<>(reversed.stream().map(User::getId).toList());
+        ids.add(UUID.randomUUID());
+
+        assertEquals(reversed, repository.findAllById(ids));
+    }
+
+    @Test
+    @DisplayName("searchByName() - Should merge the matches of every shard in creation order")
+    void testSearchByName() {
+        List<User> expected = saved.stream().filter(user -> user.getName().startsWith("User 1")).toList();
+
+        assertEquals(expected, repository.searchByName("user 1"));
+        assertEquals(saved, repository.searchByName(" "));
+    }
+
+    @Test
+    @DisplayName("findPage() - Should walk every user once through cursors")
+    void testFindPage_Cursor() {
+        List<User> seen = new ArrayList<>();
+        Long cursor = null;
+        do {
+            UserPage page = repository.findPage(null, cursor, 7);
+            seen.addAll(page.users());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(saved, seen);
+
+        UserPage first = repository.findPage("user 1", null, 6);
+        UserPage second = repository.findPage("user 1", first.nextCursor(), 6);
+        assertEquals(6, first.users().size());
+        assertEquals(5, second.users().size());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    @DisplayName("save() - Should release the previous email when a user changes it")
+    void testSave_EmailChange() {
+        User changed = new User(saved.get(0).getId(), "User 0", "renamed@example.com");
+
+        repository.save(changed);
+
+        assertFalse(repository.existsByEmail("user0@example.com"));
+        assertTrue(repository.existsByEmail("renamed@example.com"));
+        assertEquals(changed, repository.findAll().get(0));
+    }
+
+    @Test
+    @DisplayName("insertIfEmailAbsent() - Should let only one of many concurrent writers claim an email")
+    void testInsertIfEmailAbsent_Concurrent() throws InterruptedException {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                start.await();
+                repository.insertIfEmailAbsent(new User(null, "Racer", "race@example.com")).ifPresent(user -> created.incrementAndGet());
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1, created.get());
+        assertEquals(1, repository.searchByName("racer").size());
+    }
+
+    @Test
+    @DisplayName("deleteAll() - Should clear every shard and email claim")
+    void testDeleteAll() {
+        repository.deleteAll();
+
+        assertTrue(repository.findAll().isEmpty());
+        assertFalse(repository.existsByEmail("user0@example.com"));
+        assertTrue(repository.insertIfEmailAbsent(saved.get(0)).isPresent());
+    }
+
+    @Test
+    @DisplayName("Constructor - Should reject a shard count below one")
+    void testInvalidShardCount() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardedUserRepository(0));
+    }
+
+    @Test
+    @DisplayName("findByNamePrefix() - Should merge the shards' matches in name order")
+    void testFindByNamePrefix() {
+        List<User> expected = saved.stream()
+                .filter(user -> user.getName().startsWith("User 2"))
+                .sorted(Comparator.comparing(User::getName))
+                .limit(5)
+                .toList();
+
+        assertEquals(expected, repository.findByNamePrefix("user 2", 5));
+    }
+
+    @Test
+    @DisplayName("insertIfEmailAbsent() - Should not replace a user whose id already exists")
+    void testInsertIfEmailAbsent_ExistingId() {
+        User existing = saved.getFirst();
+        User takeover = new User(existing.getId(), "Mallory", "mallory@example.com");
+
+        assertTrue(repository.insertIfEmailAbsent(takeover).isEmpty());
+        assertTrue(repository.saveAll(List.of(takeover)).getFirst().isEmpty());
+
+        assertEquals(Optional.of(existing), repository.findById(existing.getId()));
+        assertFalse(repository.existsByEmail("mallory@example.com"));
+    }
+
+    @Test
+    @DisplayName("save() - Should refuse an email owned by another user")
+    void testSave_EmailOwnedByAnotherUser() {
+        User owner = saved.get(0);
+        User other = saved.get(1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.save(new User(other.getId(), other.getName(), owner.getEmail())));
+
+        assertEquals(Optional.of(other), repository.findById(other.getId()));
+        assertTrue(repository.existsByEmail(other.getEmail()));
+    }
+
+    @Test
+    @DisplayName("revision() - Should move with every write to any shard")
+    void testRevision() {
+        Revision before = repository.revision();
+        User user = saved.get(0);
+        Revision userBefore = repository.findVersionedById(user.getId()).orElseThrow().revision();
+
+        repository.save(new User(user.getId(), "Renamed", user.getEmail()));
+        Revision afterSave = repository.revision();
+        repository.insertIfEmailAbsent(new User(null, "New", "new@example.com"));
+
+        assertEquals(before.version() + 1, afterSave.version());
+        assertEquals(afterSave.version() + 1, repository.revision().version());
+        assertNotEquals(userBefore, repository.findVersionedById(user.getId()).orElseThrow().revision());
+    }
+}
@@ -0,0 +1,118 @@
+package cat.itacademy.s04.t01.userapi.repository;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.exceptions.WriteQueueFullException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WritePipelineTest {
+
+    private GatedRepository store;
+    private WritePipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        store = new GatedRepository();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.open.countDown();
+        if (pipeline != null) {
+            pipeline.close();
+        }
+    }
+
+    @Test
+    @DisplayName("submit() - Should apply queued users in batches and report duplicates per user")
+    void testSubmit_Batches() throws Exception {
+        pipeline = WritePipeline.start(store, 100, 10, Duration.ZERO);
+        CompletableFuture<Optional<User>> first = pipeline.submit(user(0));
+        assertTrue(store.entered.await(1, TimeUnit.SECONDS));
+
+        List<CompletableFuture<Optional<User>>> queued = new ArrayList<>();
+        for (int i = 1; i <= 12; i++) {
+            queued.add(pipeline.submit(user(i)));
+        }
+        CompletableFuture<Optional<User>> duplicate = pipeline.submit(new User(null, "Twin", "user1@example.com"));
+        assertEquals(13, pipeline.queued());
+        store.open.countDown();
+
+        assertTrue(first.get(1, TimeUnit.SECONDS).isPresent());
+        for (CompletableFuture<Optional<User>> result : queued) {
+            assertTrue(result.get(1, TimeUnit.SECONDS).isPresent());
+        }
+        assertTrue(duplicate.get(1, TimeUnit.SECONDS).isEmpty());
+        assertEquals(List.of(1, 10, 3), store.batchSizes);
+        assertEquals(13, store.findAll().size());
+    }
+
+    @Test
+    @DisplayName("submit() - Should reject once the queue is full and the offer timeout passes")
+    void testSubmit_Backpressure() throws Exception {
+        pipeline = WritePipeline.start(store, 2, 10, Duration.ofMillis(20));
+        pipeline.submit(user(0));
+        assertTrue(store.entered.await(1, TimeUnit.SECONDS));
+        pipeline.submit(user(1));
+        pipeline.submit(user(2));
+
+        assertThrows(WriteQueueFullException.class, () -> pipeline.submit(user(3)));
+        store.open.countDown();
+    }
+
+    @Test
+    @DisplayName("close() - Should apply what was queued before stopping")
+    void testClose_DrainsQueue() throws Exception {
+        pipeline = WritePipeline.start(store, 100, 10, Duration.ZERO);
+        pipeline.submit(user(0));
+        assertTrue(store.entered.await(1, TimeUnit.SECONDS));
+        CompletableFuture<Optional<User>> queued = pipeline.submit(user(1));
+        store.open.countDown();
+
+        pipeline.close();
+
+        assertTrue(queued.isDone());
+        assertThrows(IllegalStateException.class, () -> pipeline.submit(user(2)));
+    }
+
+    private static User user(int index) {
+        return new User(null, "User " + index, "user" + index + "@example.com");
+    }
+
+    /**
+     * Holds the first batch until {@link #open} is released, so later submissions pile up.
+     */
+    private static final class GatedRepository extends DelegatingUserRepository {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch open = new CountDownLatch(1);
+        final List<Integer> batchSizes = new ArrayList<>();
+
+        GatedRepository() {
+            super(new InMemoryUserRepository());
+        }
+
+        @Override
+        public List<Optional<User>> saveAll(List<User> users) {
+            entered.countDown();
+            try {
+                open.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batchSizes.add(users.size());
+            return super.saveAll(users);
+        }
+    }
+}
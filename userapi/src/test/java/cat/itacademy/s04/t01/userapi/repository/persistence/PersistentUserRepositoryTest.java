@@ -0,0 +1,174 @@
+package cat.itacademy.s04.t01.userapi.repository.persistence;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.repository.InMemoryUserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentUserRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    private PersistentUserRepository repository;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (repository != null) {
+            repository.close();
+        }
+    }
+
+    @Test
+    @DisplayName("open() - Should recover users written before a restart")
+    void testRecover_FromLog() throws IOException {
+        repository = open();
+        User ada = repository.save(new User(null, "Ada Lovelace", "ada@example.com"));
+        repository.insertIfEmailAbsent(new User(null, "Alan Turing", "alan@example.com"));
+
+        restart();
+
+        assertEquals(2, repository.findAll().size());
+        assertEquals("Ada Lovelace", repository.findById(ada.getId()).orElseThrow().getName());
+        assertTrue(repository.existsByEmail("alan@example.com"));
+        assertEquals(1, repository.searchByName("turing").size());
+    }
+
+    @Test
+    @DisplayName("open() - Should recover from a snapshot plus the log written after it")
+    void testRecover_FromSnapshotAndTail() throws IOException {
+        repository = open();
+        repository.save(new User(null, "Ada Lovelace", "ada@example.com"));
+        repository.snapshot();
+        repository.saveAll(List.of(
+                new User(null, "Alan Turing", "alan@example.com"),
+                new User(null, "Alan Twin", "alan@example.com")));
+
+        restart();
+
+        assertEquals(List.of("Ada Lovelace", "Alan Turing"),
+                repository.findAll().stream().map(User::getName).toList());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(f -> f.getFileName().toString().startsWith("snapshot-")).count());
+        }
+    }
+
+    @Test
+    @DisplayName("open() - Should replay updates and clears in order")
+    void testRecover_UpdatesAndClear() throws IOException {
+        repository = open();
+        repository.save(new User(null, "Gone", "gone@example.com"));
+        repository.deleteAll();
+        UUID id = UUID.randomUUID();
+        repository.save(new User(id, "First", "first@example.com"));
+        repository.save(new User(id, "Second", "second@example.com"));
+
+        restart();
+
+        assertEquals(1, repository.findAll().size());
+        assertEquals("Second", repository.findById(id).orElseThrow().getName());
+        assertFalse(repository.existsByEmail("first@example.com"));
+    }
+
+    @Test
+    @DisplayName("open() - Should drop a torn record at the end of the log")
+    void testRecover_TornTail() throws IOException {
+        repository = open();
+        repository.save(new User(null, "Ada Lovelace", "ada@example.com"));
+        repository.close();
+        repository = null;
+
+        Path segment = logSegment();
+        Files.write(segment, new byte[]{0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+
+        repository = open();
+
+        assertEquals(1, repository.findAll().size());
+        assertEquals(Optional.empty(), repository.insertIfEmailAbsent(new User(null, "Ada", "ada@example.com")));
+    }
+
+    @Test
+    @DisplayName("open() - Should drop a record whose length runs past the end of the log")
+    void testRecover_CorruptLength() throws IOException {
+        repository = open();
+        repository.save(new User(null, "Ada Lovelace", "ada@example.com"));
+        repository.close();
+        repository = null;
+
+        Path segment = logSegment();
+        long intact = Files.size(segment);
+        Files.write(segment, new byte[]{0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xF0, 0, 0, 0, 0, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        repository = open();
+
+        assertEquals(1, repository.findAll().size());
+        assertEquals(intact, Files.size(segment));
+
+        repository.save(new User(null, "Grace Hopper", "grace@example.com"));
+        restart();
+
+        assertEquals(2, repository.findAll().size());
+    }
+
+    @Test
+    @DisplayName("Writes - Should leave memory untouched when the log append fails")
+    void testWrites_FailedAppend() throws IOException {
+        InMemoryUserRepository memory = new InMemoryUserRepository();
+        repository = PersistentUserRepository.open(memory, directory, Duration.ofHours(1));
+        User ada = repository.save(new User(null, "Ada Lovelace", "ada@example.com"));
+        repository.close();
+
+        User grace = new User(UUID.randomUUID(), "Grace Hopper", "grace@example.com");
+        assertThrows(UncheckedIOException.class, () -> repository.save(grace));
+        assertThrows(UncheckedIOException.class, () -> repository.insertIfEmailAbsent(grace));
+        assertThrows(UncheckedIOException.class, () -> repository.saveAll(List.of(grace)));
+        assertThrows(UncheckedIOException.class, () -> repository.save(new User(ada.getId(), "Ada King", "ada@example.com")));
+        assertThrows(UncheckedIOException.class, () -> repository.deleteAll());
+        repository = null;
+
+        assertEquals(List.of(ada), memory.findAll());
+    }
+
+    @Test
+    @DisplayName("save() - Should refuse an email owned by another user without logging it")
+    void testSave_EmailOwnedByAnotherUser() throws IOException {
+        repository = open();
+        User ada = repository.save(new User(null, "Ada Lovelace", "ada@example.com"));
+
+        assertThrows(IllegalArgumentException.class, () -> repository.save(new User(null, "Ada Twin", "ada@EXAMPLE.com")));
+        repository.save(new User(ada.getId(), "Ada King", "ada@Example.com"));
+        restart();
+
+        assertEquals(List.of(new User(ada.getId(), "Ada King", "ada@Example.com")), repository.findAll());
+    }
+
+    private Path logSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().startsWith("wal-")).findFirst().orElseThrow();
+        }
+    }
+
+    private PersistentUserRepository open() throws IOException {
+        return PersistentUserRepository.open(new InMemoryUserRepository(), directory, Duration.ofHours(1));
+    }
+
+    private void restart() throws IOException {
+        repository.close();
+        repository = open();
+    }
+}
@@ -0,0 +1,182 @@
+package cat.itacademy.s04.t01.userapi.repository.replication;
+
+import cat.itacademy.s04.t01.userapi.entities.User;
+import cat.itacademy.s04.t01.userapi.exceptions.ReadOnlyReplicaException;
+import cat.itacademy.s04.t01.userapi.exceptions.ReplicaStaleException;
+import cat.itacademy.s04.t01.userapi.repository.InMemoryUserRepository;
+import cat.itacademy.s04.t01.userapi.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicationTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final List<AutoCloseable> resources = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable resource : resources.reversed()) {
+            resource.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Follower - Should apply the leader's writes in order")
+    void testFollowerAppliesWrites() throws Exception {
+        ReplicationLeader leader = leader(1000);
+        ReplicationFollower follower = follower(leader, Duration.ofSeconds(5));
+        UserRepository primary = leader.repository();
+
+        User ada = primary.save(new User(null, "Ada Lovelace", "ada@example.com"));
+        User grace = primary.save(new User(null, "Grace Hopper", "grace@example.com"));
+        User renamed = primary.save(new User(ada.getId(), "Ada King", "ada@example.com"));
+
+        awaitOffset(follower, leader.headOffset());
+        assertEquals(List.of(renamed, grace), follower.repository().findAll());
+        assertTrue(follower.repository().existsByEmail("grace@example.com"));
+    }
+
+    @Test
+    @DisplayName("Follower - Should catch up from a full copy when the log no longer covers it")
+    void testFollowerCatchesUpFromCopy() throws Exception {
+        ReplicationLeader leader = leader(4);
+        UserRepository primary = leader.repository();
+        for (int i = 0; i < 50; i++) {
+            primary.save(new User(null, "User " + i, "user" + i + "@example.com"));
+        }
+
+        ReplicationFollower follower = follower(leader, Duration.ofSeconds(5));
+        awaitOffset(follower, leader.headOffset());
+        primary.save(new User(null, "Late", "late@example.com"));
+        awaitOffset(follower, leader.headOffset());
+
+        assertEquals(primary.findAll(), follower.repository().findAll());
+    }
+
+    @Test
+    @DisplayName("Follower - Should replicate deleteAll")
+    void testFollowerAppliesClear() throws Exception {
+        ReplicationLeader leader = leader(1000);
+        ReplicationFollower follower = follower(leader, Duration.ofSeconds(5));
+        leader.repository().save(new User(null, "Ada Lovelace", "ada@example.com"));
+
+        leader.repository().deleteAll();
+
+        awaitOffset(follower, leader.headOffset());
+        assertTrue(follower.repository().findAll().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Follower - Should reject writes")
+    void testFollowerIsReadOnly() throws Exception {
+        ReplicationLeader leader = leader(1000);
+        ReplicationFollower follower = follower(leader, Duration.ofSeconds(5));
+
+        assertThrows(ReadOnlyReplicaException.class,
+                () -> follower.repository().save(new User(null, "Ada Lovelace", "ada@example.com")));
+    }
+
+    @Test
+    @DisplayName("Follower - Should refuse reads once the leader is gone for longer than the bound")
+    void testFollowerRefusesStaleReads() throws Exception {
+        ReplicationLeader leader = leader(1000);
+        ReplicationFollower follower = follower(leader, Duration.ofMillis(300));
+        await(follower::isInSync);
+        assertTrue(follower.repository().findAll().isEmpty());
+
+        leader.close();
+
+        await(() -> !follower.isInSync());
+        assertThrows(ReplicaStaleException.class, () -> follower.repository().findAll());
+    }
+
+    @Test
+    @DisplayName("Follower - Should refuse reads while a full copy is only partly loaded")
+    void testFollowerRefusesReadsDuringCopy() throws Exception {
+        User ada = new User(UUID.randomUUID(), "Ada Lovelace", "ada@example.com");
+        User grace = new User(UUID.randomUUID(), "Grace Hopper", "grace@example.com");
+        try (ServerSocket leader = new ServerSocket(0)) {
+            ReplicationFollower follower = ReplicationFollower.start(new InMemoryUserRepository(), "localhost",
+                    leader.getLocalPort(), Duration.ofSeconds(30));
+            resources.add(follower);
+
+            try (Socket connection = leader.accept()) {
+                DataOutputStream out = handshake(connection);
+                ReplicationProtocol.writeControl(out, ReplicationProtocol.COPY_START, 1);
+                ReplicationProtocol.writeEvents(out, 1, List.of(new ReplicationEvent(1, ReplicationEvent.Type.PUT, ada)));
+                ReplicationProtocol.writeControl(out, ReplicationProtocol.COPY_END, 1);
+                out.flush();
+                await(follower::isInSync);
+                assertEquals(Optional.of(ada), follower.repository().findById(ada.getId()));
+            }
+
+            try (Socket connection = leader.accept()) {
+                DataOutputStream out = handshake(connection);
+                ReplicationProtocol.writeControl(out, ReplicationProtocol.COPY_START, 2);
+                ReplicationProtocol.writeEvents(out, 2, List.of(new ReplicationEvent(2, ReplicationEvent.Type.PUT, grace)));
+                out.flush();
+                await(() -> !follower.isInSync());
+                assertThrows(ReplicaStaleException.class, () -> follower.repository().findById(ada.getId()));
+
+                ReplicationProtocol.writeEvents(out, 2, List.of(new ReplicationEvent(1, ReplicationEvent.Type.PUT, ada)));
+                ReplicationProtocol.writeControl(out, ReplicationProtocol.COPY_END, 2);
+                out.flush();
+                await(follower::isInSync);
+                assertEquals(List.of(grace, ada), follower.repository().findAll());
+            }
+        }
+    }
+
+    /**
+     * Plays the leader's side of the handshake with a fixed epoch, so every connection gets a copy.
+     */
+    private static DataOutputStream handshake(Socket connection) throws IOException {
+        DataInputStream in = new DataInputStream(connection.getInputStream());
+        in.readLong();
+        in.readLong();
+        DataOutputStream out = new DataOutputStream(connection.getOutputStream());
+        out.writeLong(42);
+        return out;
+    }
+
+    private ReplicationLeader leader(int logCapacity) throws IOException {
+        ReplicationLeader leader = ReplicationLeader.start(new InMemoryUserRepository(), 0, 16, Duration.ofMillis(20), logCapacity);
+        resources.add(leader);
+        return leader;
+    }
+
+    private ReplicationFollower follower(ReplicationLeader leader, Duration maxStaleness) {
+        ReplicationFollower follower = ReplicationFollower.start(new InMemoryUserRepository(), "localhost", leader.port(), maxStaleness);
+        resources.add(follower);
+        return follower;
+    }
+
+    private static void awaitOffset(ReplicationFollower follower, long offset) throws InterruptedException {
+        await(() -> follower.appliedOffset() >= offset && follower.isInSync());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within " + TIMEOUT);
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -1,13 +1,24 @@
 package cat.itacademy.s04.t01.userapi.service;
 
+import cat.itacademy.s04.t01.userapi.dto.BulkImportResult;
+import cat.itacademy.s04.t01.userapi.dto.BulkItemResult;
+import cat.itacademy.s04.t01.userapi.dto.CreateUserResult;
+import cat.itacademy.s04.t01.userapi.dto.UserLookupResult;
+import cat.itacademy.s04.t01.userapi.dto.UserRequest;
 import cat.itacademy.s04.t01.userapi.entities.User;
 import cat.itacademy.s04.t01.userapi.repository.UserRepository;
+import cat.itacademy.s04.t01.userapi.repository.WritePipeline;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,7 +35,7 @@ class UserServiceImplTest {
     @Test
     void createUser_shouldThrowExceptionWhenEmailAlreadyExists() {
         User user = new User (UUID.randomUUID(), "John Doe", "john@example.com");
-        when(userRepository.existsByEmail("john@example.com")).thenReturn(true);
+        when(userRepository.insertIfEmailAbsent(user)).thenReturn(Optional.empty());
 
         IllegalArgumentException exception = assertThrows(
                 IllegalArgumentException.class,
@@ -33,6 +44,89 @@ class UserServiceImplTest {
 
         assertEquals("Email already registered: john@example.com", exception.getMessage());
         verify(userRepository, never()).save(any(User.class));
-        verify(userRepository, times(1)).existsByEmail("john@example.com");
+        verify(userRepository, times(1)).insertIfEmailAbsent(user);
     }
-}
\ No newline at end of file
+
+    @Test
+    void createUser_shouldReturnStoredUserWhenEmailIsFree() {
+        User user = new User (UUID.randomUUID(), "John Doe", "john@example.com");
+        when(userRepository.insertIfEmailAbsent(user)).thenReturn(Optional.of(user));
+
+        assertSame(user, userService.createUser(user));
+        verify(userRepository, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    void importUsers_shouldBatchValidUsersAndReportInvalidOnes() {
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> batch = invocation.getArgument(0);
+            return List.of(Optional.of(batch.get(0)), Optional.empty());
+        });
+
+        BulkImportResult result = userService.importUsers(List.of(
+                new UserRequest(null, "Ada", "ada@example.com"),
+                new UserRequest(null, "Bad", "no-at-sign"),
+                new UserRequest(null, "Ada twin", "ada@example.com")).iterator());
+
+        assertEquals(1, result.created());
+        assertEquals(2, result.rejected());
+        assertEquals(BulkItemResult.Status.CREATED, result.items().get(0).status());
+        assertEquals(BulkItemResult.Status.INVALID, result.items().get(1).status());
+        assertEquals(BulkItemResult.Status.DUPLICATE, result.items().get(2).status());
+        verify(userRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void importUsers_shouldReportNullElementsAsInvalid() {
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> batch = invocation.getArgument(0);
+            return batch.stream().map(Optional::of).toList();
+        });
+
+        BulkImportResult result = userService.importUsers(Arrays.asList(
+                new UserRequest(null, "Ada", "ada@example.com"),
+                null).iterator());
+
+        assertEquals(1, result.created());
+        assertEquals(1, result.rejected());
+        assertEquals(BulkItemResult.invalid(1, "The user cannot be null."), result.items().get(1));
+    }
+
+    @Test
+    void lookupUsers_shouldFetchDistinctIdsOnceAndReportMissingOnes() {
+        User ada = new User(UUID.randomUUID(), "Ada", "ada@example.com");
+        UUID missing = UUID.randomUUID();
+        when(userRepository.findAllById(anyCollection())).thenReturn(List.of(ada));
+
+        UserLookupResult result = userService.lookupUsers(List.of(ada.getId(), missing, ada.getId()));
+
+        assertEquals(List.of(ada), result.users());
+        assertEquals(List.of(missing), result.missing());
+        verify(userRepository).findAllById(Set.of(ada.getId(), missing));
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void registerUser_shouldReturnDuplicateInsteadOfThrowing() {
+        User user = new User(UUID.randomUUID(), "John Doe", "john@example.com");
+        when(userRepository.insertIfEmailAbsent(user)).thenReturn(Optional.empty()).thenReturn(Optional.of(user));
+
+        assertEquals(new CreateUserResult.DuplicateEmail("john@example.com"), userService.registerUser(user));
+        assertEquals(new CreateUserResult.Created(user), userService.registerUser(user));
+    }
+
+    @Test
+    void registerUser_withWritePipeline_shouldGoThroughTheQueue() {
+        User user = new User(null, "John Doe", "john@example.com");
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> batch = invocation.getArgument(0);
+            return List.of(Optional.of(batch.get(0)));
+        });
+        try (WritePipeline pipeline = WritePipeline.start(userRepository, 10, 10, Duration.ZERO)) {
+            UserServiceImpl pipelined = new UserServiceImpl(userRepository, pipeline);
+
+            assertEquals(new CreateUserResult.Created(user), pipelined.registerUser(user));
+            verify(userRepository, never()).insertIfEmailAbsent(any());
+        }
+    }
+}